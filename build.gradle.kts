@@ -21,12 +21,18 @@ dependencies {
     implementation("com.zaxxer:HikariCP:5.0.1")
     
     // Cache
-    implementation("com.google.guava:guava:32.1.3-jre")
+    implementation("com.github.ben-manes.caffeine:caffeine:3.1.8")
     
     // Hooks
     compileOnly("me.clip:placeholderapi:2.11.5")
     compileOnly("com.github.MilkBowl:VaultAPI:1.7")
     compileOnly("com.sk89q.worldguard:worldguard-bukkit:7.0.9")
+
+    // Tests
+    testImplementation("org.spigotmc:spigot-api:1.8.8-R0.1-SNAPSHOT")
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 java {
@@ -45,11 +51,18 @@ tasks {
         
         // Relocate dependencies to avoid conflicts
         relocate("com.zaxxer.hikari", "com.easyhomes.libs.hikari")
-        relocate("com.google.common", "com.easyhomes.libs.guava")
+        relocate("com.github.benmanes.caffeine", "com.easyhomes.libs.caffeine")
         
-        minimize()
+        minimize {
+            // Caffeine loads its cache implementations reflectively
+            exclude(dependency("com.github.ben-manes.caffeine:caffeine:.*"))
+        }
     }
     
+    test {
+        useJUnitPlatform()
+    }
+
     build {
         dependsOn(shadowJar)
     }
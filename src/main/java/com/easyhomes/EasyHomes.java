@@ -12,17 +12,27 @@ import com.easyhomes.listeners.CombatListener;
 import com.easyhomes.manager.CombatManager;
 import com.easyhomes.manager.CooldownManager;
 import com.easyhomes.manager.HomeManager;
+import com.easyhomes.manager.InactivityManager;
+import com.easyhomes.manager.MigrationManager;
 import com.easyhomes.manager.TeleportManager;
 import com.easyhomes.storage.HomeStorage;
 import com.easyhomes.util.DebugManager;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * EasyHomes - Profesjonalny system zarządzania domami
@@ -34,6 +44,8 @@ public class EasyHomes extends JavaPlugin implements Listener {
     private DatabaseManager databaseManager;
     private HomeStorage homeStorage;
     private HomeManager homeManager;
+    private MigrationManager migrationManager;
+    private InactivityManager inactivityManager;
     private CooldownManager cooldownManager;
     private CombatManager combatManager;
     private TeleportManager teleportManager;
@@ -44,12 +56,18 @@ public class EasyHomes extends JavaPlugin implements Listener {
     private WorldGuardHook worldGuardHook;
     private EasyHomesExpansion placeholderExpansion;
 
+    // Startup phase durations in milliseconds, in order
+    private final Map<String, Long> startupPhases = new LinkedHashMap<>();
+    private long phaseStart;
+
     @Override
     public void onEnable() {
         long startTime = System.currentTimeMillis();
+        phaseStart = System.nanoTime();
         
         // Save default config
         saveDefaultConfig();
+        endPhase("config");
         
         getLogger().info("=================================");
         getLogger().info("   EasyHomes - Ładowanie...");
@@ -60,25 +78,33 @@ public class EasyHomes extends JavaPlugin implements Listener {
         // Initialize debug manager first
         debugManager = new DebugManager(this);
         getLogger().info("✓ DebugManager zainicjalizowany");
+        endPhase("debug");
 
-        // Initialize database
+        // Initialize database - the pool is opened in the background, startup does not wait for MySQL
         databaseManager = new DatabaseManager(this, getConfig());
-        boolean databaseEnabled = databaseManager.initialize();
-        
-        if (databaseEnabled) {
-            getLogger().info("✓ MySQL połączony pomyślnie!");
-        } else {
-            getLogger().warning("⚠ MySQL niedostępny - używam YAML fallback");
+        if (databaseManager.initialize()) {
+            getLogger().info("✓ MySQL łączy się w tle");
         }
+        endPhase("database");
 
         // Initialize storage with cache
-        homeStorage = new HomeStorage(this, getConfig(), databaseManager);
+        homeStorage = new HomeStorage(this, getConfig(), databaseManager, debugManager);
         getLogger().info("✓ HomeStorage zainicjalizowany");
+        endPhase("storage");
 
         // Initialize managers
         homeManager = new HomeManager(homeStorage, getConfig());
         getLogger().info("✓ HomeManager zainicjalizowany");
 
+        migrationManager = new MigrationManager(this, getConfig(), homeStorage, debugManager);
+
+        inactivityManager = new InactivityManager(this, getConfig(), homeStorage);
+        inactivityManager.start();
+        if (inactivityManager.isPurgeEnabled()) {
+            getLogger().info("✓ Czyszczenie nieaktywnych graczy włączone");
+        }
+        endPhase("homes");
+
         // Initialize cooldown manager
         int defaultCooldown = getConfig().getInt("cooldowns.default", 60);
         Map<String, Integer> groupCooldowns = new HashMap<>();
@@ -118,22 +144,85 @@ public class EasyHomes extends JavaPlugin implements Listener {
                 soundsEnabled, soundType, soundVolume, soundPitch,
                 titleEnabled, titleText, subtitleText);
         getLogger().info("✓ TeleportManager zainicjalizowany");
+        endPhase("managers");
 
         // Initialize hooks
         initializeHooks();
+        endPhase("hooks");
 
         // Register commands
         registerCommands();
+        endPhase("commands");
 
         // Register listeners
         getServer().getPluginManager().registerEvents(new CombatListener(combatManager), this);
         getServer().getPluginManager().registerEvents(this, this);
         getLogger().info("✓ Listenery zarejestrowane");
 
+        // Warm up the cache for players already online (plugin reload)
+        warmUpOnlinePlayers();
+        endPhase("listeners");
+
         long loadTime = System.currentTimeMillis() - startTime;
         getLogger().info("=================================");
         getLogger().info("  EasyHomes włączony! (" + loadTime + "ms)");
         getLogger().info("=================================");
+        logStartupPhases();
+    }
+
+    /**
+     * Record how long the startup phase that just finished took
+     */
+    private void endPhase(String phase) {
+        long now = System.nanoTime();
+        startupPhases.put(phase, (now - phaseStart) / 1_000_000);
+        phaseStart = now;
+    }
+
+    /**
+     * Log the startup timing breakdown - MySQL logs its own once it is ready
+     */
+    private void logStartupPhases() {
+        StringBuilder phases = new StringBuilder();
+        for (Map.Entry<String, Long> phase : startupPhases.entrySet()) {
+            if (phases.length() > 0) {
+                phases.append(", ");
+            }
+            phases.append(phase.getKey()).append(' ').append(phase.getValue()).append("ms");
+        }
+        getLogger().info("Startup phases: " + phases);
+
+        if (databaseManager.isEnabled() && !databaseManager.isReady()) {
+            getLogger().info("Storage is warming up - home commands are available once MySQL is connected");
+        }
+    }
+
+    /**
+     * Load homes of all online players with a few bulk queries once storage is ready
+     */
+    private void warmUpOnlinePlayers() {
+        // Players who joined while MySQL was starting were not preloaded - they are online by the time it is ready
+        homeStorage.whenReady().thenRun(() -> getServer().getScheduler().runTask(this, () -> {
+            List<UUID> playerIds = new ArrayList<>();
+            for (Player player : getServer().getOnlinePlayers()) {
+                playerIds.add(player.getUniqueId());
+            }
+            if (playerIds.isEmpty()) {
+                return;
+            }
+
+            homeStorage.warmUp(playerIds, (done, total) -> {
+                if (done < total) {
+                    getLogger().info("Cache warm-up: " + done + "/" + total + " players");
+                }
+            }).thenAccept(result -> {
+                if (result != null) {
+                    getLogger().info("Cache warm-up: " + result.getHomes() + " homes of " + result.getPlayers()
+                            + " online players loaded in " + result.getDurationMillis() + "ms"
+                            + (result.getFailed() > 0 ? " (" + result.getFailed() + " players left to load on first use)" : ""));
+                }
+            });
+        }));
     }
 
     /**
@@ -194,7 +283,8 @@ public class EasyHomes extends JavaPlugin implements Listener {
         getCommand("delhome").setExecutor(delHomeCommand);
         getCommand("delhome").setTabCompleter(delHomeCommand);
 
-        EasyHomesCommand adminCommand = new EasyHomesCommand(this, getConfig(), debugManager);
+        EasyHomesCommand adminCommand = new EasyHomesCommand(this, getConfig(), debugManager, migrationManager,
+                inactivityManager, homeManager);
         getCommand("easyhomes").setExecutor(adminCommand);
         getCommand("easyhomes").setTabCompleter(adminCommand);
         
@@ -231,6 +321,23 @@ public class EasyHomes extends JavaPlugin implements Listener {
             getLogger().info("✓ PlaceholderAPI wyrejestrowany");
         }
 
+        // Stop a running migration after its current batch
+        if (migrationManager != null && migrationManager.isRunning()) {
+            migrationManager.shutdown();
+            getLogger().info("✓ Zatrzymano migrację danych");
+        }
+
+        // Write buffered last-seen times
+        if (inactivityManager != null) {
+            inactivityManager.shutdown();
+        }
+
+        // Flush buffered home writes
+        if (homeStorage != null) {
+            homeStorage.shutdown();
+            getLogger().info("✓ Zapisano oczekujące zmiany domów");
+        }
+
         // Close database connection
         if (databaseManager != null && databaseManager.isEnabled()) {
             databaseManager.close();
@@ -242,10 +349,55 @@ public class EasyHomes extends JavaPlugin implements Listener {
         getLogger().info("=================================");
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || homeStorage == null) {
+            return;
+        }
+
+        // Don't hold the login up while MySQL is starting or down - the warm-up / join pick the player up
+        if (!homeStorage.isReady() || !homeStorage.isBackendAvailable()) {
+            return;
+        }
+
+        // Runs on the async login thread - load homes before the player joins
+        homeStorage.preloadPlayer(event.getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED || homeStorage == null) {
+            return;
+        }
+
+        // Login denied after preload - release pinned homes (unless the same account is still online)
+        UUID playerId = event.getPlayer().getUniqueId();
+        if (getServer().getPlayer(playerId) == null) {
+            homeStorage.unloadPlayer(playerId);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (inactivityManager != null) {
+            inactivityManager.recordSeen(event.getPlayer());
+        }
+
+        // Preload was skipped (MySQL starting or down) - load in the background instead
+        UUID playerId = event.getPlayer().getUniqueId();
+        if (homeStorage != null && !homeStorage.isLoaded(playerId)) {
+            homeStorage.preloadPlayerAsync(playerId);
+        }
+    }
+
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
 
+        if (inactivityManager != null) {
+            inactivityManager.recordSeen(player);
+        }
+
         // Cancel any pending teleport
         if (teleportManager != null) {
             teleportManager.cancelTeleport(player);
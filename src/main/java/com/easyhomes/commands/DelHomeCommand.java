@@ -2,6 +2,7 @@ package com.easyhomes.commands;
 
 import com.easyhomes.hooks.VaultManager;
 import com.easyhomes.manager.HomeManager;
+import com.easyhomes.model.Home;
 import com.easyhomes.util.DebugManager;
 import com.easyhomes.util.MessageUtil;
 import org.bukkit.command.Command;
@@ -41,6 +42,11 @@ public class DelHomeCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (!homeManager.isStorageReady()) {
+            player.sendMessage(getMessage("storage-warming-up"));
+            return true;
+        }
+
         if (args.length == 0) {
             player.sendMessage(getMessage("usage-delhome"));
             return true;
@@ -48,34 +54,55 @@ public class DelHomeCommand implements CommandExecutor, TabCompleter {
 
         String homeName = args[0].toLowerCase();
 
+        homeManager.getHomeAsync(player, homeName).thenAccept(home -> {
+            if (player.isOnline()) {
+                deleteHome(player, homeName, home);
+            }
+        }).exceptionally(error -> handleStorageError(player, error));
+
+        return true;
+    }
+
+    private void deleteHome(Player player, String homeName, Home home) {
         // Check if home exists
-        if (!homeManager.hasHome(player, homeName)) {
+        if (home == null) {
             player.sendMessage(getMessage("delhome-not-found", "home", homeName));
-            return true;
+            return;
         }
 
         // Delete the home
-        homeManager.deleteHome(player, homeName);
-        debugManager.log(player.getName() + " deleted home: " + homeName);
-        
-        // Refund if enabled
-        if (vaultManager != null && vaultManager.isEnabled() && config.getBoolean("economy.enabled", false)) {
-            if (config.getBoolean("economy.refund-on-delete", false)) {
-                double sethomeCost = config.getDouble("economy.sethome-cost", 0);
-                int refundPercent = config.getInt("economy.refund-percentage", 50);
-                
-                if (sethomeCost > 0 && refundPercent > 0) {
-                    double refund = (sethomeCost * refundPercent) / 100.0;
-                    vaultManager.deposit(player, refund);
-                    player.sendMessage(getMessage("economy-refund", "amount", vaultManager.format(refund)));
-                    debugManager.log(player.getName() + " received refund: " + refund);
+        homeManager.deleteHomeAsync(player, homeName).thenRun(() -> {
+            debugManager.log(player.getName() + " deleted home: " + homeName);
+
+            if (!player.isOnline()) {
+                return;
+            }
+
+            // Refund if enabled
+            if (vaultManager != null && vaultManager.isEnabled() && config.getBoolean("economy.enabled", false)) {
+                if (config.getBoolean("economy.refund-on-delete", false)) {
+                    double sethomeCost = config.getDouble("economy.sethome-cost", 0);
+                    int refundPercent = config.getInt("economy.refund-percentage", 50);
+                    
+                    if (sethomeCost > 0 && refundPercent > 0) {
+                        double refund = (sethomeCost * refundPercent) / 100.0;
+                        vaultManager.deposit(player, refund);
+                        player.sendMessage(getMessage("economy-refund", "amount", vaultManager.format(refund)));
+                        debugManager.log(player.getName() + " received refund: " + refund);
+                    }
                 }
             }
-        }
-        
-        player.sendMessage(getMessage("delhome-success", "home", homeName));
+            
+            player.sendMessage(getMessage("delhome-success", "home", homeName));
+        }).exceptionally(error -> handleStorageError(player, error));
+    }
 
-        return true;
+    private Void handleStorageError(Player player, Throwable error) {
+        debugManager.log("Storage operation failed for " + player.getName(), error);
+        if (player.isOnline()) {
+            player.sendMessage(getMessage("storage-error"));
+        }
+        return null;
     }
 
     private String getMessage(String key, Object... replacements) {
@@ -94,10 +121,14 @@ public class DelHomeCommand implements CommandExecutor, TabCompleter {
 
         if (args.length == 1) {
             // Suggest home names
-            List<String> homeNames = new ArrayList<>(homeManager.getHomes(player).keySet());
+            List<String> suggestions = new ArrayList<>();
             String prefix = args[0].toLowerCase();
-            homeNames.removeIf(home -> !home.toLowerCase().startsWith(prefix));
-            return homeNames;
+            for (String homeName : homeManager.getCachedHomes(player).keySet()) {
+                if (homeName.startsWith(prefix)) {
+                    suggestions.add(homeName);
+                }
+            }
+            return suggestions;
         }
 
         return new ArrayList<>();
@@ -1,28 +1,50 @@
 package com.easyhomes.commands;
 
+import com.easyhomes.manager.HomeManager;
+import com.easyhomes.manager.InactivityManager;
+import com.easyhomes.manager.MigrationManager;
+import com.easyhomes.storage.OwnedHome;
+import com.easyhomes.storage.StorageFactory;
 import com.easyhomes.util.DebugManager;
 import com.easyhomes.util.MessageUtil;
+import com.easyhomes.util.QueryMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 public class EasyHomesCommand implements CommandExecutor, TabCompleter {
     private final JavaPlugin plugin;
     private final FileConfiguration config;
     private final DebugManager debugManager;
+    private final MigrationManager migrationManager;
+    private final InactivityManager inactivityManager;
+    private final HomeManager homeManager;
 
-    public EasyHomesCommand(JavaPlugin plugin, FileConfiguration config, DebugManager debugManager) {
+    public EasyHomesCommand(JavaPlugin plugin, FileConfiguration config, DebugManager debugManager,
+            MigrationManager migrationManager, InactivityManager inactivityManager, HomeManager homeManager) {
         this.plugin = plugin;
         this.config = config;
         this.debugManager = debugManager;
+        this.migrationManager = migrationManager;
+        this.inactivityManager = inactivityManager;
+        this.homeManager = homeManager;
     }
 
     @Override
@@ -86,10 +108,323 @@ public class EasyHomesCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        // Komenda /easyhomes migrate <from> <to|status|cancel>
+        if (subcommand.equals("migrate")) {
+            if (!sender.hasPermission("easyhomes.migrate")) {
+                sender.sendMessage(getMessage("migrate-no-permission"));
+                return true;
+            }
+
+            handleMigrate(sender, args);
+            return true;
+        }
+
+        // Komenda /easyhomes near <radius>
+        if (subcommand.equals("near")) {
+            if (!sender.hasPermission("easyhomes.near")) {
+                sender.sendMessage(getMessage("near-no-permission"));
+                return true;
+            }
+            if (!homeManager.isStorageReady()) {
+                sender.sendMessage(getMessage("storage-warming-up"));
+                return true;
+            }
+
+            handleNear(sender, args);
+            return true;
+        }
+
+        // Komenda /easyhomes purge world <name>
+        if (subcommand.equals("purge")) {
+            if (!sender.hasPermission("easyhomes.purge")) {
+                sender.sendMessage(getMessage("purge-no-permission"));
+                return true;
+            }
+            if (!homeManager.isStorageReady()) {
+                sender.sendMessage(getMessage("storage-warming-up"));
+                return true;
+            }
+
+            handlePurge(sender, args);
+            return true;
+        }
+
+        // Komenda /easyhomes metrics db [reset]
+        if (subcommand.equals("metrics")) {
+            if (!sender.hasPermission("easyhomes.metrics")) {
+                sender.sendMessage(getMessage("metrics-no-permission"));
+                return true;
+            }
+
+            handleMetrics(sender, args);
+            return true;
+        }
+
+        // Komenda /easyhomes cache <clear|warmup>
+        if (subcommand.equals("cache")) {
+            if (!sender.hasPermission("easyhomes.cache")) {
+                sender.sendMessage(getMessage("cache-no-permission"));
+                return true;
+            }
+            if (!homeManager.isStorageReady()) {
+                sender.sendMessage(getMessage("storage-warming-up"));
+                return true;
+            }
+
+            handleCache(sender, args);
+            return true;
+        }
+
+        // Komenda /easyhomes status
+        if (subcommand.equals("status")) {
+            if (!sender.hasPermission("easyhomes.status")) {
+                sender.sendMessage(getMessage("status-no-permission"));
+                return true;
+            }
+
+            handleStatus(sender);
+            return true;
+        }
+
         sender.sendMessage(getMessage("usage-easyhomes"));
         return true;
     }
 
+    private void handleCache(CommandSender sender, String[] args) {
+        if (args.length == 2 && args[1].equalsIgnoreCase("clear")) {
+            homeManager.clearCache();
+            sender.sendMessage(getMessage("cache-cleared"));
+            debugManager.log("Cache cleared by " + sender.getName());
+            return;
+        }
+
+        if (args.length != 2 || !args[1].equalsIgnoreCase("warmup")) {
+            sender.sendMessage(getMessage("usage-cache"));
+            return;
+        }
+
+        List<UUID> players = new ArrayList<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            players.add(player.getUniqueId());
+        }
+
+        homeManager.warmUp(players, (done, total) -> {
+            if (done < total) {
+                sender.sendMessage(getMessage("warmup-progress", "done", done, "total", total));
+            }
+        }).thenAccept(result -> {
+            if (result == null) {
+                sender.sendMessage(getMessage("warmup-running"));
+                return;
+            }
+            sender.sendMessage(getMessage("warmup-finished",
+                    "homes", result.getHomes(),
+                    "players", result.getPlayers(),
+                    "time", result.getDurationMillis()));
+            if (result.getFailed() > 0) {
+                sender.sendMessage(getMessage("warmup-failed", "players", result.getFailed()));
+            }
+        });
+
+        sender.sendMessage(getMessage("warmup-started", "players", players.size()));
+        debugManager.log("Cache warm-up of " + players.size() + " players started by " + sender.getName());
+    }
+
+    private void handleStatus(CommandSender sender) {
+        sender.sendMessage(getMessage("status-header"));
+        sender.sendMessage(getMessage("status-storage", "type", homeManager.getStorageType()));
+
+        String database = homeManager.getDatabaseStatus();
+        if (database != null) {
+            String key = homeManager.isDatabaseAvailable() ? "status-database-up" : "status-database-down";
+            sender.sendMessage(getMessage(key, "stats", database));
+        }
+
+        sender.sendMessage(getMessage("status-cache", "stats", homeManager.getCacheStats()));
+        sender.sendMessage(getMessage("status-writes", "stats", homeManager.getWriteStats()));
+        sender.sendMessage(getMessage("status-index", "stats", homeManager.getSpatialIndexStats()));
+    }
+
+    private void handleMetrics(CommandSender sender, String[] args) {
+        if (args.length < 2 || !args[1].equalsIgnoreCase("db")) {
+            sender.sendMessage(getMessage("usage-metrics"));
+            return;
+        }
+
+        QueryMetrics metrics = homeManager.getQueryMetrics();
+        if (metrics == null) {
+            sender.sendMessage(getMessage("metrics-unavailable"));
+            return;
+        }
+
+        if (args.length >= 3 && args[2].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(getMessage("metrics-reset"));
+            return;
+        }
+
+        Map<String, String> stats = metrics.getStats();
+        sender.sendMessage(getMessage("metrics-header",
+                "minutes", TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - metrics.getSince()),
+                "threshold", metrics.getSlowQueryMillis()));
+        if (stats.isEmpty()) {
+            sender.sendMessage(getMessage("metrics-empty"));
+        }
+        for (Map.Entry<String, String> entry : stats.entrySet()) {
+            sender.sendMessage(getMessage("metrics-entry", "operation", entry.getKey(), "stats", entry.getValue()));
+        }
+        sender.sendMessage(getMessage("metrics-executor", "stats", homeManager.getWriteStats()));
+    }
+
+    private void handlePurge(CommandSender sender, String[] args) {
+        if (args.length == 2 && args[1].equalsIgnoreCase("inactive")) {
+            handlePurgeInactive(sender);
+            return;
+        }
+
+        if (args.length < 3 || !args[1].equalsIgnoreCase("world")) {
+            sender.sendMessage(getMessage("usage-purge"));
+            return;
+        }
+
+        String world = args[2];
+        homeManager.purgeWorld(world).thenAccept(result -> {
+            if (result == null) {
+                sender.sendMessage(getMessage("purge-running"));
+                return;
+            }
+
+            sender.sendMessage(getMessage("purge-finished",
+                    "world", world,
+                    "homes", result.getHomes(),
+                    "players", result.getPlayers(),
+                    "time", result.getDurationMillis()));
+            plugin.getLogger().info("Purged " + result.getHomes() + " homes of " + result.getPlayers()
+                    + " players in world " + world + " (" + result.getDurationMillis() + "ms)");
+        }).exceptionally(error -> {
+            plugin.getLogger().log(Level.WARNING, "Failed to purge homes in world " + world, error);
+            sender.sendMessage(getMessage("purge-failed", "world", world));
+            return null;
+        });
+
+        sender.sendMessage(getMessage("purge-started", "world", world));
+        debugManager.log("Purge of world " + world + " started by " + sender.getName());
+    }
+
+    private void handlePurgeInactive(CommandSender sender) {
+        if (!inactivityManager.isPurgeEnabled()) {
+            sender.sendMessage(getMessage("purge-inactive-disabled"));
+            return;
+        }
+
+        inactivityManager.purgeInactive().thenAccept(result -> {
+            if (result == null) {
+                sender.sendMessage(getMessage("purge-running"));
+                return;
+            }
+            sender.sendMessage(getMessage("purge-inactive-finished",
+                    "homes", result.getHomes(),
+                    "players", result.getPlayers(),
+                    "time", result.getDurationMillis()));
+        }).exceptionally(error -> {
+            plugin.getLogger().log(Level.WARNING, "Inactive player purge failed", error);
+            sender.sendMessage(getMessage("purge-inactive-failed"));
+            return null;
+        });
+
+        sender.sendMessage(getMessage("purge-inactive-started", "days", config.getInt("inactive-purge.inactive-days")));
+        debugManager.log("Inactive player purge started by " + sender.getName());
+    }
+
+    private void handleNear(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("This command can only be used by players.");
+            return;
+        }
+
+        Player player = (Player) sender;
+        int maxRadius = config.getInt("spatial-index.max-radius", 1000);
+        int radius;
+        try {
+            radius = args.length < 2 ? 100 : Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            player.sendMessage(getMessage("usage-near"));
+            return;
+        }
+        if (radius < 1 || radius > maxRadius) {
+            player.sendMessage(getMessage("near-invalid-radius", "max", maxRadius));
+            return;
+        }
+
+        Location location = player.getLocation();
+        homeManager.findHomesNear(location, radius).thenAccept(homes -> {
+            if (!player.isOnline()) {
+                return;
+            }
+
+            if (homes.isEmpty()) {
+                player.sendMessage(getMessage("near-none", "radius", radius));
+                return;
+            }
+
+            int limit = Math.min(homes.size(), config.getInt("spatial-index.max-results", 20));
+            player.sendMessage(getMessage("near-header", "count", homes.size(), "radius", radius));
+            for (OwnedHome entry : homes.subList(0, limit)) {
+                OfflinePlayer owner = Bukkit.getOfflinePlayer(entry.getPlayerId());
+                String ownerName = owner.getName() != null ? owner.getName() : entry.getPlayerId().toString();
+                player.sendMessage(getMessage("near-entry",
+                        "player", ownerName,
+                        "home", entry.getHome().getName(),
+                        "distance", String.format("%.0f", Math.sqrt(entry.distanceSquared(location.getX(), location.getZ())))));
+            }
+        }).exceptionally(error -> {
+            debugManager.log("Nearby home lookup failed for " + player.getName(), error);
+            if (player.isOnline()) {
+                player.sendMessage(getMessage(error.getCause() instanceof UnsupportedOperationException
+                        ? "near-unavailable" : "storage-error"));
+            }
+            return null;
+        });
+    }
+
+    private void handleMigrate(CommandSender sender, String[] args) {
+        if (args.length == 2 && args[1].equalsIgnoreCase("status")) {
+            sender.sendMessage(migrationManager.isRunning() ? migrationManager.getStatus() : getMessage("migration-not-running"));
+            return;
+        }
+
+        if (args.length == 2 && args[1].equalsIgnoreCase("cancel")) {
+            sender.sendMessage(getMessage(migrationManager.cancel() ? "migration-cancelling" : "migration-not-running"));
+            return;
+        }
+
+        if (args.length < 3) {
+            sender.sendMessage(getMessage("usage-migrate"));
+            return;
+        }
+
+        String from = args[1].toUpperCase();
+        String to = args[2].toUpperCase();
+        for (String type : new String[]{from, to}) {
+            if (!StorageFactory.TYPES.contains(type)) {
+                sender.sendMessage(getMessage("migration-invalid-type", "type", type));
+                return;
+            }
+        }
+        if (from.equals(to)) {
+            sender.sendMessage(getMessage("migration-same-type"));
+            return;
+        }
+
+        if (!migrationManager.start(sender, from, to)) {
+            sender.sendMessage(getMessage("migration-running"));
+            return;
+        }
+
+        sender.sendMessage(getMessage("migration-started", "from", from, "to", to));
+        debugManager.log("Migration " + from + " -> " + to + " started by " + sender.getName());
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
@@ -105,6 +440,30 @@ public class EasyHomesCommand implements CommandExecutor, TabCompleter {
                 subcommands.add("debug");
             }
 
+            if (sender.hasPermission("easyhomes.migrate")) {
+                subcommands.add("migrate");
+            }
+
+            if (sender.hasPermission("easyhomes.near")) {
+                subcommands.add("near");
+            }
+
+            if (sender.hasPermission("easyhomes.purge")) {
+                subcommands.add("purge");
+            }
+
+            if (sender.hasPermission("easyhomes.metrics")) {
+                subcommands.add("metrics");
+            }
+
+            if (sender.hasPermission("easyhomes.status")) {
+                subcommands.add("status");
+            }
+
+            if (sender.hasPermission("easyhomes.cache")) {
+                subcommands.add("cache");
+            }
+
             // Filter based on what player typed
             String input = args[0].toLowerCase();
             completions = subcommands.stream()
@@ -122,6 +481,62 @@ public class EasyHomesCommand implements CommandExecutor, TabCompleter {
             }
         }
 
+        if (args.length >= 2 && args.length <= 3 && args[0].equalsIgnoreCase("migrate")) {
+            if (sender.hasPermission("easyhomes.migrate")) {
+                List<String> options = new ArrayList<>();
+                for (String type : StorageFactory.TYPES) {
+                    options.add(type.toLowerCase());
+                }
+                if (args.length == 2) {
+                    options.add("status");
+                    options.add("cancel");
+                }
+
+                String input = args[args.length - 1].toLowerCase();
+                completions = options.stream()
+                        .filter(s -> s.startsWith(input))
+                        .collect(Collectors.toList());
+            }
+        }
+
+        if (args.length >= 2 && args.length <= 3 && args[0].equalsIgnoreCase("purge")) {
+            if (sender.hasPermission("easyhomes.purge")) {
+                List<String> options = new ArrayList<>();
+                if (args.length == 2) {
+                    options.add("world");
+                    options.add("inactive");
+                } else if (args[1].equalsIgnoreCase("world")) {
+                    for (World world : Bukkit.getWorlds()) {
+                        options.add(world.getName());
+                    }
+                }
+
+                String input = args[args.length - 1].toLowerCase();
+                completions = options.stream()
+                        .filter(s -> s.toLowerCase().startsWith(input))
+                        .collect(Collectors.toList());
+            }
+        }
+
+        if (args.length >= 2 && args.length <= 3 && args[0].equalsIgnoreCase("metrics")) {
+            if (sender.hasPermission("easyhomes.metrics")) {
+                List<String> options = args.length == 2 ? Arrays.asList("db") : Arrays.asList("reset");
+                String input = args[args.length - 1].toLowerCase();
+                completions = options.stream()
+                        .filter(s -> s.startsWith(input))
+                        .collect(Collectors.toList());
+            }
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("cache")) {
+            if (sender.hasPermission("easyhomes.cache")) {
+                String input = args[1].toLowerCase();
+                completions = Arrays.asList("clear", "warmup").stream()
+                        .filter(s -> s.startsWith(input))
+                        .collect(Collectors.toList());
+            }
+        }
+
         return completions;
     }
 
@@ -18,10 +18,13 @@ import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
 
 public class HomeCommand implements CommandExecutor, TabCompleter {
+    // Teleports to the closest home unless the player has a home with this name
+    private static final String NEAREST = "nearest";
+
     private final HomeManager homeManager;
     private final CooldownManager cooldownManager;
     private final CombatManager combatManager;
@@ -57,6 +60,11 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (!homeManager.isStorageReady()) {
+            player.sendMessage(getMessage("storage-warming-up"));
+            return true;
+        }
+
         // If no arguments, list homes
         if (args.length == 0) {
             listHomes(player);
@@ -64,32 +72,52 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
         }
 
         String homeName = args[0].toLowerCase();
-        Home home = homeManager.getHome(player, homeName);
 
+        homeManager.getHomeAsync(player, homeName).thenCompose(home -> {
+            if (home == null && homeName.equals(NEAREST) && player.isOnline()) {
+                return homeManager.getNearestHomeAsync(player);
+            }
+            return CompletableFuture.completedFuture(home);
+        }).thenAccept(home -> {
+            if (!player.isOnline()) {
+                return;
+            }
+
+            if (home == null && homeName.equals(NEAREST)) {
+                player.sendMessage(getMessage("home-nearest-none"));
+                return;
+            }
+            teleportToHome(player, home != null ? home.getName().toLowerCase() : homeName, home);
+        }).exceptionally(error -> handleStorageError(player, error));
+
+        return true;
+    }
+
+    private void teleportToHome(Player player, String homeName, Home home) {
         if (home == null) {
             player.sendMessage(getMessage("home-not-found", "home", homeName));
-            return true;
+            return;
         }
 
         // Check combat status
         if (combatManager.isInCombat(player)) {
             long remaining = combatManager.getRemainingCombatTime(player);
             player.sendMessage(getMessage("combat-active", "time", remaining));
-            return true;
+            return;
         }
 
         // Check cooldown
         if (cooldownManager.isOnCooldown(player)) {
             long remaining = cooldownManager.getRemainingCooldown(player);
             player.sendMessage(getMessage("cooldown-active", "time", remaining));
-            return true;
+            return;
         }
 
         // Get home location
         Location location = home.getLocation();
         if (location == null) {
             player.sendMessage(getMessage("home-not-found", "home", homeName));
-            return true;
+            return;
         }
 
         // Check economy cost
@@ -107,7 +135,7 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
             if (totalCost > 0 && !player.hasPermission("easyhomes.bypass.cost")) {
                 if (!vaultManager.has(player, totalCost)) {
                     player.sendMessage(getMessage("economy-insufficient-funds", "cost", vaultManager.format(totalCost)));
-                    return true;
+                    return;
                 }
                 
                 vaultManager.withdraw(player, totalCost);
@@ -133,24 +161,34 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
                     player.sendMessage(getMessage("teleport-cancelled-move"));
                     debugManager.logTeleport(player.getName(), homeName, false);
                 });
-
-        return true;
     }
 
     private void listHomes(Player player) {
-        Map<String, Home> homes = homeManager.getHomes(player);
+        homeManager.getHomesAsync(player).thenAccept(homes -> {
+            if (!player.isOnline()) {
+                return;
+            }
 
-        if (homes.isEmpty()) {
-            player.sendMessage(getMessage("no-homes"));
-            return;
-        }
+            if (homes.isEmpty()) {
+                player.sendMessage(getMessage("no-homes"));
+                return;
+            }
 
-        StringJoiner joiner = new StringJoiner(", ");
-        for (String homeName : homes.keySet()) {
-            joiner.add(homeName);
-        }
+            StringJoiner joiner = new StringJoiner(", ");
+            for (String homeName : homes.keySet()) {
+                joiner.add(homeName);
+            }
+
+            player.sendMessage(getMessage("home-list", "homes", joiner.toString()));
+        }).exceptionally(error -> handleStorageError(player, error));
+    }
 
-        player.sendMessage(getMessage("home-list", "homes", joiner.toString()));
+    private Void handleStorageError(Player player, Throwable error) {
+        debugManager.log("Storage operation failed for " + player.getName(), error);
+        if (player.isOnline()) {
+            player.sendMessage(getMessage("storage-error"));
+        }
+        return null;
     }
 
     private String getMessage(String key, Object... replacements) {
@@ -168,11 +206,17 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
         Player player = (Player) sender;
 
         if (args.length == 1) {
-            // Suggest home names
-            Map<String, Home> homes = homeManager.getHomes(player);
-            List<String> suggestions = new ArrayList<>(homes.keySet());
+            // Suggest home names (from memory only - tab completion must never wait for storage)
+            List<String> suggestions = new ArrayList<>();
             String prefix = args[0].toLowerCase();
-            suggestions.removeIf(home -> !home.toLowerCase().startsWith(prefix));
+            for (String homeName : homeManager.getCachedHomes(player).keySet()) {
+                if (homeName.startsWith(prefix)) {
+                    suggestions.add(homeName);
+                }
+            }
+            if (NEAREST.startsWith(prefix) && !suggestions.contains(NEAREST)) {
+                suggestions.add(NEAREST);
+            }
             return suggestions;
         }
 
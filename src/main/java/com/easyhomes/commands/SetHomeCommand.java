@@ -6,6 +6,7 @@ import com.easyhomes.manager.HomeManager;
 import com.easyhomes.model.Home;
 import com.easyhomes.util.DebugManager;
 import com.easyhomes.util.MessageUtil;
+import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -15,6 +16,7 @@ import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class SetHomeCommand implements CommandExecutor, TabCompleter {
     private final HomeManager homeManager;
@@ -45,6 +47,11 @@ public class SetHomeCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (!homeManager.isStorageReady()) {
+            player.sendMessage(getMessage("storage-warming-up"));
+            return true;
+        }
+
         // Use "home" as default name if no argument provided
         String homeName = (args.length == 0) ? "home" : args[0].toLowerCase();
 
@@ -63,43 +70,81 @@ public class SetHomeCommand implements CommandExecutor, TabCompleter {
             }
         }
 
+        // Capture location now - the player may move before storage answers
+        Location location = player.getLocation();
+
+        homeManager.getHomesAsync(player).thenAccept(homes -> {
+            if (player.isOnline()) {
+                setHome(player, homeName, location, homes);
+            }
+        }).exceptionally(error -> handleStorageError(player, error));
+
+        return true;
+    }
+
+    private void setHome(Player player, String homeName, Location location, Map<String, Home> homes) {
         // Check if updating existing home or creating new one
-        boolean isUpdate = homeManager.hasHome(player, homeName);
+        boolean isUpdate = homes.containsKey(homeName);
 
         // Check home limit if creating new home
-        if (!isUpdate && !homeManager.canSetMoreHomes(player)) {
+        if (!isUpdate && !homeManager.canSetMoreHomes(player, homes.size())) {
             int limit = homeManager.getHomeLimit(player);
             player.sendMessage(getMessage("sethome-limit-reached", "limit", limit));
-            return true;
+            return;
         }
 
         // Check economy cost
+        double charged = 0;
         if (!isUpdate && vaultManager != null && vaultManager.isEnabled() && config.getBoolean("economy.enabled", false)) {
             double cost = config.getDouble("economy.sethome-cost", 0);
             
             if (cost > 0 && !player.hasPermission("easyhomes.bypass.cost")) {
                 if (!vaultManager.has(player, cost)) {
                     player.sendMessage(getMessage("economy-insufficient-funds", "cost", vaultManager.format(cost)));
-                    return true;
+                    return;
                 }
                 
-                vaultManager.withdraw(player, cost);
+                if (!vaultManager.withdraw(player, cost)) {
+                    player.sendMessage(getMessage("economy-insufficient-funds", "cost", vaultManager.format(cost)));
+                    return;
+                }
+                charged = cost;
                 player.sendMessage(getMessage("economy-sethome-cost", "cost", vaultManager.format(cost)));
                 debugManager.log(player.getName() + " paid " + cost + " for sethome");
             }
         }
 
-        // Set the home
-        homeManager.setHome(player, homeName, player.getLocation());
-        debugManager.log(player.getName() + " set home: " + homeName + " at " + player.getLocation());
+        // Set the home - the cost is refunded if it cannot be saved
+        double refund = charged;
+        homeManager.setHomeAsync(player, homeName, location).thenRun(() -> {
+            debugManager.log(player.getName() + " set home: " + homeName + " at " + location);
 
-        if (isUpdate) {
-            player.sendMessage(getMessage("sethome-updated", "home", homeName));
-        } else {
-            player.sendMessage(getMessage("sethome-success", "home", homeName));
-        }
+            if (!player.isOnline()) {
+                return;
+            }
 
-        return true;
+            if (isUpdate) {
+                player.sendMessage(getMessage("sethome-updated", "home", homeName));
+            } else {
+                player.sendMessage(getMessage("sethome-success", "home", homeName));
+            }
+        }).exceptionally(error -> {
+            if (refund > 0 && vaultManager.deposit(player, refund)) {
+                debugManager.log("Refunded " + refund + " to " + player.getName() + " after a failed sethome");
+                if (player.isOnline()) {
+                    player.sendMessage(getMessage("economy-refund", "amount", vaultManager.format(refund)));
+                }
+            }
+            return handleStorageError(player, error);
+        });
+    }
+
+    private Void handleStorageError(Player player, Throwable error) {
+        debugManager.log("Storage operation failed for " + player.getName(), error);
+        if (player.isOnline()) {
+            player.sendMessage(getMessage("storage-error"));
+        }
+        return null;
     }
 
     private String getMessage(String key, Object... replacements) {
@@ -118,10 +163,14 @@ public class SetHomeCommand implements CommandExecutor, TabCompleter {
 
         if (args.length == 1) {
             // Suggest existing home names for updating
-            List<String> homeNames = new ArrayList<>(homeManager.getHomes(player).keySet());
+            List<String> suggestions = new ArrayList<>();
             String prefix = args[0].toLowerCase();
-            homeNames.removeIf(home -> !home.toLowerCase().startsWith(prefix));
-            return homeNames;
+            for (String homeName : homeManager.getCachedHomes(player).keySet()) {
+                if (homeName.startsWith(prefix)) {
+                    suggestions.add(homeName);
+                }
+            }
+            return suggestions;
         }
 
         return new ArrayList<>();
@@ -0,0 +1,228 @@
+package com.easyhomes.database;
+
+import com.easyhomes.util.QueryMetrics;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Cross-server cache invalidation through the shared easyhomes_changes table
+ * Every write appends the changed players; each server polls the rows after the last id it has seen
+ * and reloads exactly those players. Auto-increment ids can become visible out of order when
+ * transactions commit concurrently, so skipped ids are re-checked for a while before they are
+ * considered rolled back.
+ */
+public class ChangeLog {
+    // Identifies rows written by this server - they are skipped when polling
+    private static final UUID SERVER_ID = UUID.randomUUID();
+    private static final long GAP_TIMEOUT_MILLIS = 10_000;
+    // Larger holes are rows deleted by pruning, not transactions in flight
+    private static final int MAX_GAPS = 1000;
+    private static final int POLL_LIMIT = 1000;
+    private static final long PRUNE_INTERVAL_MILLIS = 60_000;
+    private static final int PRUNE_BATCH = 5000;
+
+    private final Plugin plugin;
+    private final DatabaseManager databaseManager;
+    private final QueryMetrics metrics;
+    private final long pollIntervalTicks;
+    private final long retentionMillis;
+    // Skipped ids and when to give up on them
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final AtomicLong received = new AtomicLong();
+    // -1 until the first poll has read the current position
+    private volatile long lastId = -1;
+    private volatile long lastPrune = System.currentTimeMillis();
+    private BukkitTask pollTask;
+
+    public ChangeLog(Plugin plugin, DatabaseManager databaseManager, QueryMetrics metrics, long pollIntervalMillis, long retentionMillis) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.metrics = metrics;
+        this.pollIntervalTicks = Math.max(1, pollIntervalMillis / 50);
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Append changed players as part of the caller's write (same connection and transaction)
+     */
+    void record(Connection conn, Collection<UUID> players) throws SQLException {
+        if (players.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO easyhomes_changes (player_uuid, server_id, changed_at) VALUES (?, ?, ?)")) {
+            byte[] serverId = UuidCodec.toBytes(SERVER_ID);
+            long now = System.currentTimeMillis();
+            for (UUID playerId : players) {
+                stmt.setBytes(1, UuidCodec.toBytes(playerId));
+                stmt.setBytes(2, serverId);
+                stmt.setLong(3, now);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Start polling - the listener gets players changed by other servers on a database thread
+     */
+    public void start(Consumer<Set<UUID>> listener) {
+        pollTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                () -> poll(listener), pollIntervalTicks, pollIntervalTicks);
+    }
+
+    private void poll(Consumer<Set<UUID>> listener) {
+        // Nothing to read while MySQL is down - missed changes are picked up after it recovers
+        if (!databaseManager.isAvailable()) {
+            return;
+        }
+
+        // Never run two polls at once - a slow database would otherwise pile them up
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+
+        databaseManager.supplyAsync(() -> metrics.time("pollChanges", "after id " + lastId, this::readChanges))
+                .thenAccept(players -> {
+                    if (!players.isEmpty()) {
+                        received.addAndGet(players.size());
+                        listener.accept(players);
+                    }
+                })
+                .whenComplete((ignored, error) -> {
+                    polling.set(false);
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to poll the change log", error);
+                    }
+                });
+
+        long now = System.currentTimeMillis();
+        if (now - lastPrune >= PRUNE_INTERVAL_MILLIS) {
+            lastPrune = now;
+            prune(now - retentionMillis);
+        }
+    }
+
+    private Set<UUID> readChanges() {
+        try (Connection conn = databaseManager.getConnection()) {
+            if (lastId < 0) {
+                // Caches start empty, so earlier changes are already visible
+                lastId = readMaxId(conn);
+                return Collections.emptySet();
+            }
+
+            Set<UUID> players = new HashSet<>();
+            long now = System.currentTimeMillis();
+
+            if (!gaps.isEmpty()) {
+                Long[] ids = gaps.keySet().toArray(new Long[0]);
+                String placeholders = String.join(", ", Collections.nCopies(ids.length, "?"));
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT id, player_uuid, server_id FROM easyhomes_changes WHERE id IN (" + placeholders + ")")) {
+                    for (int i = 0; i < ids.length; i++) {
+                        stmt.setLong(i + 1, ids[i]);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            gaps.remove(rs.getLong("id"));
+                            collect(rs, players);
+                        }
+                    }
+                }
+                gaps.values().removeIf(deadline -> deadline < now);
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT id, player_uuid, server_id FROM easyhomes_changes WHERE id > ? ORDER BY id LIMIT ?")) {
+                stmt.setLong(1, lastId);
+                stmt.setInt(2, POLL_LIMIT);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        if (id - lastId - 1 <= MAX_GAPS - gaps.size()) {
+                            for (long missing = lastId + 1; missing < id; missing++) {
+                                gaps.put(missing, now + GAP_TIMEOUT_MILLIS);
+                            }
+                        }
+                        lastId = id;
+                        collect(rs, players);
+                    }
+                }
+            }
+
+            return players;
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void collect(ResultSet rs, Set<UUID> players) throws SQLException {
+        if (!Arrays.equals(rs.getBytes("server_id"), UuidCodec.toBytes(SERVER_ID))) {
+            players.add(UuidCodec.fromBytes(rs.getBytes("player_uuid")));
+        }
+    }
+
+    private static long readMaxId(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM easyhomes_changes");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Delete rows older than the retention (every server does this, it is idempotent)
+     */
+    private void prune(long cutoff) {
+        databaseManager.runAsync(() -> metrics.time("pruneChanges", "before " + cutoff, () -> {
+            try (Connection conn = databaseManager.getWriteConnection();
+                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM easyhomes_changes WHERE changed_at < ? LIMIT " + PRUNE_BATCH)) {
+                stmt.setLong(1, cutoff);
+                return stmt.executeUpdate();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        })).exceptionally(error -> {
+            if (!CircuitOpenException.isCause(error)) {
+                plugin.getLogger().log(Level.WARNING, "Failed to prune the change log", error);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Get change log statistics
+     */
+    public String getStats() {
+        return String.format("Last id: %d, Remote changes: %d, Pending gaps: %d", lastId, received.get(), gaps.size());
+    }
+
+    /**
+     * Stop polling
+     */
+    public void shutdown() {
+        if (pollTask != null) {
+            pollTask.cancel();
+        }
+    }
+}
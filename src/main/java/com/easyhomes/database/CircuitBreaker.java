@@ -0,0 +1,108 @@
+package com.easyhomes.database;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks consecutive MySQL connection failures and trips after a threshold
+ * While open, callers fail fast and a single background probe decides when to close again
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong trips = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private volatile String lastError;
+
+    CircuitBreaker(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+    }
+
+    /**
+     * Check if a caller may try to get a connection - counts the rejection otherwise
+     */
+    boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Record a successful connection
+     */
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * Record a failed connection - returns true if this failure tripped the breaker
+     */
+    synchronized boolean recordFailure(Throwable error) {
+        lastError = error.getMessage();
+        if (consecutiveFailures.incrementAndGet() < failureThreshold || state != State.CLOSED) {
+            return false;
+        }
+
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        trips.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Mark the start of a probe - returns false if the breaker is not open
+     */
+    synchronized boolean startProbe() {
+        if (state != State.OPEN) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    /**
+     * Finish a probe - closes the breaker on success, reopens it otherwise
+     */
+    synchronized void finishProbe(Throwable error) {
+        if (error == null) {
+            consecutiveFailures.set(0);
+            state = State.CLOSED;
+        } else {
+            lastError = error.getMessage();
+            state = State.OPEN;
+        }
+    }
+
+    int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /**
+     * Milliseconds since the breaker opened (0 while closed)
+     */
+    long getOpenMillis() {
+        return state == State.CLOSED ? 0 : System.currentTimeMillis() - openedAt;
+    }
+
+    String getStats() {
+        String stats = String.format("State: %s, Consecutive failures: %d, Trips: %d, Rejected: %d",
+                state, consecutiveFailures.get(), trips.get(), rejected.get());
+        if (state != State.CLOSED) {
+            stats += String.format(", Open for: %ds, Last error: %s", getOpenMillis() / 1000, lastError);
+        }
+        return stats;
+    }
+}
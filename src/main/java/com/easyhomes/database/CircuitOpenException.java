@@ -0,0 +1,25 @@
+package com.easyhomes.database;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown instead of waiting for a connection while the MySQL circuit breaker is open
+ */
+public class CircuitOpenException extends SQLException {
+
+    public CircuitOpenException(String message) {
+        super(message, "08001");
+    }
+
+    /**
+     * Check if a failure (possibly wrapped) was caused by an open circuit breaker
+     */
+    public static boolean isCause(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitOpenException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,229 @@
+package com.easyhomes.database;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor for blocking JDBC work with bounded capacity
+ * Platform mode runs one thread per pooled connection with a bounded queue. Virtual mode (Java 21+)
+ * starts a virtual thread per task and lets at most one per pooled connection run a query, so
+ * waiting tasks cost no OS thread. In both modes storage threads wait briefly for capacity when
+ * full (backpressure); the main thread never waits and gets a {@link RejectedExecutionException}.
+ */
+public class DatabaseExecutor implements Executor {
+    private final Plugin plugin;
+    private final int threads;
+    private final int capacity;
+    private final long submitTimeoutMillis;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    // Platform mode
+    private final ThreadPoolExecutor executor;
+    private final BlockingQueue<Runnable> queue;
+
+    // Virtual mode - slots bound queued + running tasks, permits bound running tasks
+    private final ThreadFactory virtualThreads;
+    private final Semaphore slots;
+    private final Semaphore permits;
+    private volatile boolean shutdown;
+
+    public DatabaseExecutor(Plugin plugin, String name, int threads, int queueSize, long submitTimeoutMillis, boolean virtual) {
+        this.plugin = plugin;
+        this.threads = Math.max(1, threads);
+        this.capacity = this.threads + Math.max(1, queueSize);
+        this.submitTimeoutMillis = submitTimeoutMillis;
+        this.virtualThreads = virtual ? createVirtualThreadFactory(name) : null;
+
+        if (virtualThreads != null) {
+            this.executor = null;
+            this.queue = null;
+            this.slots = new Semaphore(capacity);
+            this.permits = new Semaphore(this.threads);
+            return;
+        }
+
+        this.slots = null;
+        this.permits = null;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 60, TimeUnit.SECONDS, queue, task -> {
+            Thread thread = new Thread(task, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (task, pool) -> waitForSpace(task));
+    }
+
+    /**
+     * Virtual thread factory via reflection (the plugin is compiled for Java 17), or null if unavailable
+     */
+    private static ThreadFactory createVirtualThreadFactory(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java < 21, or virtual threads still in preview
+            return null;
+        }
+    }
+
+    /**
+     * Whether tasks run on virtual threads
+     */
+    public boolean isVirtual() {
+        return virtualThreads != null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (virtualThreads == null) {
+            executor.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            });
+            peakQueueDepth.accumulateAndGet(queue.size(), Math::max);
+            return;
+        }
+
+        if (shutdown) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Database executor is shut down");
+        }
+        if (!slots.tryAcquire() && !waitForSlot()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Database queue is full (" + getQueueDepth() + " tasks waiting)");
+        }
+
+        virtualThreads.newThread(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+                slots.release();
+                completed.incrementAndGet();
+            }
+        }).start();
+        peakQueueDepth.accumulateAndGet(getQueueDepth(), Math::max);
+    }
+
+    /**
+     * Platform mode rejection policy - block off the main thread for up to submitTimeoutMillis
+     */
+    private void waitForSpace(Runnable task) {
+        if (executor.isShutdown()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Database executor is shut down");
+        }
+
+        if (canWait()) {
+            waited.incrementAndGet();
+            try {
+                if (queue.offer(task, submitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        rejected.incrementAndGet();
+        throw new RejectedExecutionException("Database queue is full (" + queue.size() + " tasks waiting)");
+    }
+
+    /**
+     * Virtual mode - wait off the main thread for up to submitTimeoutMillis
+     */
+    private boolean waitForSlot() {
+        if (!canWait()) {
+            return false;
+        }
+
+        waited.incrementAndGet();
+        try {
+            return slots.tryAcquire(submitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean canWait() {
+        return submitTimeoutMillis > 0 && !plugin.getServer().isPrimaryThread();
+    }
+
+    /**
+     * Tasks waiting for a thread (platform mode) or a connection slot (virtual mode)
+     */
+    public int getQueueDepth() {
+        if (virtualThreads == null) {
+            return queue.size();
+        }
+        return Math.max(0, capacity - slots.availablePermits() - getActiveCount());
+    }
+
+    private int getActiveCount() {
+        return virtualThreads == null ? executor.getActiveCount() : threads - permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Get executor statistics
+     */
+    public String getStats() {
+        return String.format("%s threads: %d/%d active, Queue: %d (peak %d, capacity %d), Completed: %d, Waited: %d, Rejected: %d",
+                isVirtual() ? "Virtual" : "Platform",
+                getActiveCount(),
+                threads,
+                getQueueDepth(),
+                peakQueueDepth.get(),
+                capacity - threads,
+                completed.get(),
+                waited.get(),
+                rejected.get());
+    }
+
+    /**
+     * Run queued tasks and stop accepting new ones (blocking)
+     */
+    public void shutdown() {
+        try {
+            if (virtualThreads == null) {
+                executor.shutdown();
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    plugin.getLogger().warning("Database executor did not finish in time, " + queue.size() + " tasks dropped");
+                    executor.shutdownNow();
+                }
+                return;
+            }
+
+            shutdown = true;
+            // All slots free = every started task has finished
+            if (!slots.tryAcquire(capacity, 10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Database executor did not finish in time, " + getQueueDepth() + " tasks still waiting");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,23 +2,55 @@ package com.easyhomes.database;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
  * Manages MySQL database connections using HikariCP pool
- * Handles table creation and connection lifecycle
+ * Handles schema migrations and connection lifecycle
  */
 public class DatabaseManager {
+    private static final long REPLICA_RETRY_MILLIS = 30_000;
+
     private final Plugin plugin;
     private final FileConfiguration config;
-    private HikariDataSource dataSource;
-    private boolean enabled;
+    private volatile HikariDataSource dataSource;
+    // Read replica (null when not configured)
+    private HikariDataSource replicaSource;
+    // Reads skip the replica until this time after it failed
+    private volatile long replicaRetryAt;
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong replicaFallbacks = new AtomicLong();
+    private DatabaseExecutor executor;
+    // Fails connections fast while MySQL is down (null when disabled)
+    private CircuitBreaker circuitBreaker;
+    private long probeIntervalTicks;
+    private volatile BukkitTask probeTask;
+    private volatile boolean enabled;
+    private volatile boolean closed;
+    // Completes once the schema is migrated; connections are handed out only after that
+    private volatile CompletableFuture<Void> schemaReady;
+    // Completes once the first background connection attempt finished, successful or not
+    private final CompletableFuture<Void> firstAttempt = new CompletableFuture<>();
+    // Why the background connection attempts are failing (null once connected)
+    private volatile String startupError;
+    // Notified when MySQL becomes usable - after startup or when the circuit breaker closes
+    private final List<Runnable> availableListeners = new CopyOnWriteArrayList<>();
+    // False when the database was migrated by a newer plugin version
+    private volatile boolean writable = true;
 
     public DatabaseManager(Plugin plugin, FileConfiguration config) {
         this.plugin = plugin;
@@ -27,69 +59,174 @@ public class DatabaseManager {
     }
 
     /**
-     * Initialize database connection and create tables
+     * Start connecting to MySQL in the background - returns false if MySQL is not the configured storage
      */
     public boolean initialize() {
         String storageType = config.getString("storage.type", "YAML").toUpperCase();
         
         if (!storageType.equals("MYSQL")) {
-            plugin.getLogger().info("Storage type: YAML (fallback mode)");
+            plugin.getLogger().info("Storage type: " + storageType + " (MySQL not used)");
             enabled = false;
+            firstAttempt.complete(null);
             return false;
         }
 
+        return connectAsync();
+    }
+
+    /**
+     * Open the pool and migrate the schema on a background thread, so plugin startup does not wait for MySQL
+     * Until the first attempt finishes, storage calls off the main thread wait for it. If it fails, calls fail
+     * fast (homes are served from cache and YAML) while connecting is retried every probe interval.
+     */
+    private boolean connectAsync() {
+        int threads = createPoolConfig("storage.mysql", "EasyHomes-Pool").getMaximumPoolSize();
+        boolean replica = config.getBoolean("storage.mysql.replica.enabled", false);
+        if (replica) {
+            threads += createPoolConfig("storage.mysql.replica", "EasyHomes-ReadPool").getMaximumPoolSize();
+        }
+        createExecutor(threads);
+        createCircuitBreaker();
+
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        schemaReady = ready;
+        enabled = true;
+
+        Thread thread = new Thread(() -> startup(replica, ready), "EasyHomes-Startup");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Connect and migrate, retrying until it succeeds or the manager is closed (startup thread)
+     */
+    private void startup(boolean replica, CompletableFuture<Void> ready) {
+        long retryMillis = Math.max(1000, config.getLong("storage.mysql.circuit-breaker.probe-interval-ms", 5000));
+        int attempts = 0;
+
+        while (!closed) {
+            attempts++;
+            long start = System.nanoTime();
+            HikariDataSource source = null;
+            try {
+                source = new HikariDataSource(createPoolConfig("storage.mysql", "EasyHomes-Pool"));
+                long poolMillis = elapsedMillis(start);
+
+                long schemaStart = System.nanoTime();
+                migrateSchema(source);
+                long schemaMillis = elapsedMillis(schemaStart);
+
+                long replicaStart = System.nanoTime();
+                if (replica) {
+                    connectReplica();
+                }
+                long replicaMillis = elapsedMillis(replicaStart);
+
+                synchronized (this) {
+                    if (closed) {
+                        source.close();
+                        break;
+                    }
+                    dataSource = source;
+                }
+                startupError = null;
+                plugin.getLogger().info(String.format("MySQL ready in %dms (pool %dms, schema %dms, replica %dms)%s",
+                        elapsedMillis(start), poolMillis, schemaMillis, replicaMillis,
+                        attempts > 1 ? " after " + attempts + " attempts" : ""));
+                ready.complete(null);
+                firstAttempt.complete(null);
+                notifyAvailable();
+                return;
+
+            } catch (Exception e) {
+                if (source != null) {
+                    source.close();
+                }
+                if (startupError == null) {
+                    plugin.getLogger().warning("MySQL is not reachable - serving homes from cache and YAML, retrying every "
+                            + retryMillis / 1000 + "s: " + e.getMessage());
+                }
+                startupError = String.valueOf(e.getMessage());
+                firstAttempt.complete(null);
+            }
+
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        ready.completeExceptionally(new SQLException("Database is closed"));
+        firstAttempt.complete(null);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Create the executor that runs JDBC work - one thread per pooled connection
+     */
+    private void createExecutor(int threads) {
+        String virtualThreads = config.getString("storage.mysql.executor.virtual-threads", "auto");
+        executor = new DatabaseExecutor(plugin, "EasyHomes-DB", threads,
+                config.getInt("storage.mysql.executor.queue-size", 1000),
+                config.getLong("storage.mysql.executor.submit-timeout-ms", 100),
+                !virtualThreads.equalsIgnoreCase("false"));
+        if (virtualThreads.equalsIgnoreCase("true") && !executor.isVirtual()) {
+            plugin.getLogger().warning("Virtual threads require Java 21+ - using platform threads for MySQL");
+        }
+        plugin.getLogger().info("MySQL queries run on " + (executor.isVirtual() ? "virtual" : "platform") + " threads");
+    }
+
+    private void createCircuitBreaker() {
+        if (config.getBoolean("storage.mysql.circuit-breaker.enabled", true)) {
+            circuitBreaker = new CircuitBreaker(config.getInt("storage.mysql.circuit-breaker.failure-threshold", 3));
+            probeIntervalTicks = Math.max(1, config.getLong("storage.mysql.circuit-breaker.probe-interval-ms", 5000) / 50);
+        }
+    }
+
+    /**
+     * Open the connection pool and start schema migrations, regardless of storage.type (blocking)
+     */
+    public boolean connect() {
         try {
-            HikariConfig hikariConfig = new HikariConfig();
-            
-            // Connection settings
-            String host = config.getString("storage.mysql.host", "localhost");
-            int port = config.getInt("storage.mysql.port", 3306);
-            String database = config.getString("storage.mysql.database", "minecraft");
-            String username = config.getString("storage.mysql.username", "root");
-            String password = config.getString("storage.mysql.password", "");
-            boolean useSSL = config.getBoolean("storage.mysql.use-ssl", false);
-            
-            hikariConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=" + useSSL + "&autoReconnect=true");
-            hikariConfig.setUsername(username);
-            hikariConfig.setPassword(password);
-            
-            // Pool settings
-            hikariConfig.setMaximumPoolSize(config.getInt("storage.mysql.pool-size", 10));
-            hikariConfig.setMinimumIdle(2);
-            hikariConfig.setConnectionTimeout(config.getInt("storage.mysql.connection-timeout", 5000));
-            hikariConfig.setIdleTimeout(600000); // 10 minutes
-            hikariConfig.setMaxLifetime(1800000); // 30 minutes
-            hikariConfig.setLeakDetectionThreshold(60000); // 1 minute
-            
-            // Connection test
-            hikariConfig.setConnectionTestQuery("SELECT 1");
-            
-            // Pool name
-            hikariConfig.setPoolName("EasyHomes-Pool");
-            
-            // Additional properties for MySQL optimization
-            hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-            hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
-            hikariConfig.addDataSourceProperty("useLocalSessionState", "true");
-            hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
-            hikariConfig.addDataSourceProperty("cacheResultSetMetadata", "true");
-            hikariConfig.addDataSourceProperty("cacheServerConfiguration", "true");
-            hikariConfig.addDataSourceProperty("elideSetAutoCommits", "true");
-            hikariConfig.addDataSourceProperty("maintainTimeStats", "false");
-            
+            HikariConfig hikariConfig = createPoolConfig("storage.mysql", "EasyHomes-Pool");
             dataSource = new HikariDataSource(hikariConfig);
             
             // Test connection
             try (Connection conn = dataSource.getConnection()) {
                 plugin.getLogger().info("MySQL connection established successfully!");
             }
+
+            createCircuitBreaker();
+
+            int threads = hikariConfig.getMaximumPoolSize();
+            if (config.getBoolean("storage.mysql.replica.enabled", false)) {
+                threads += connectReplica();
+            }
+            createExecutor(threads);
             
-            // Create tables
-            createTables();
+            // Migrate the schema in the background - storage operations wait for it
+            HikariDataSource source = dataSource;
+            schemaReady = CompletableFuture.runAsync(() -> {
+                try {
+                    migrateSchema(source);
+                } catch (SQLException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to migrate the database schema! MySQL storage is unavailable.", e);
+                    throw new CompletionException(e);
+                }
+            }, task -> {
+                Thread thread = new Thread(task, "EasyHomes-Schema");
+                thread.setDaemon(true);
+                thread.start();
+            });
             
             enabled = true;
+            firstAttempt.complete(null);
             return true;
             
         } catch (Exception e) {
@@ -98,75 +235,141 @@ public class DatabaseManager {
             plugin.getLogger().warning("Error: " + e.getMessage());
             
             // Close dataSource if it was partially initialized
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+            if (replicaSource != null && !replicaSource.isClosed()) {
+                replicaSource.close();
+                replicaSource = null;
+            }
             if (dataSource != null && !dataSource.isClosed()) {
                 dataSource.close();
                 dataSource = null;
             }
             
             enabled = false;
+            firstAttempt.complete(null);
             return false;
         }
     }
 
     /**
-     * Create database tables if they don't exist
-     */
-    private void createTables() {
-        String homesTable = "CREATE TABLE IF NOT EXISTS `easyhomes_homes` (" +
-                "`id` INT AUTO_INCREMENT PRIMARY KEY," +
-                "`player_uuid` VARCHAR(36) NOT NULL," +
-                "`home_name` VARCHAR(32) NOT NULL," +
-                "`world` VARCHAR(64) NOT NULL," +
-                "`x` DOUBLE NOT NULL," +
-                "`y` DOUBLE NOT NULL," +
-                "`z` DOUBLE NOT NULL," +
-                "`yaw` FLOAT NOT NULL," +
-                "`pitch` FLOAT NOT NULL," +
-                "`created_at` BIGINT NOT NULL," +
-                "`updated_at` BIGINT NOT NULL," +
-                "UNIQUE KEY `player_home` (`player_uuid`, `home_name`)," +
-                "INDEX `idx_player_uuid` (`player_uuid`)," +
-                "INDEX `idx_home_name` (`home_name`)" +
-                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
-
-        String playersTable = "CREATE TABLE IF NOT EXISTS `easyhomes_players` (" +
-                "`id` INT AUTO_INCREMENT PRIMARY KEY," +
-                "`uuid` VARCHAR(36) NOT NULL UNIQUE," +
-                "`name` VARCHAR(16) NOT NULL," +
-                "`last_seen` BIGINT NOT NULL," +
-                "INDEX `idx_uuid` (`uuid`)" +
-                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
-
-        String statsTable = "CREATE TABLE IF NOT EXISTS `easyhomes_statistics` (" +
-                "`id` INT AUTO_INCREMENT PRIMARY KEY," +
-                "`player_uuid` VARCHAR(36) NOT NULL," +
-                "`home_name` VARCHAR(32) NOT NULL," +
-                "`teleport_count` INT DEFAULT 0," +
-                "`last_visited` BIGINT," +
-                "UNIQUE KEY `player_home_stats` (`player_uuid`, `home_name`)," +
-                "INDEX `idx_player_stats` (`player_uuid`)" +
-                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
-
-        try (Connection conn = getConnection()) {
-            // Create homes table
-            try (PreparedStatement stmt = conn.prepareStatement(homesTable)) {
-                stmt.executeUpdate();
+     * Open the read replica pool - reads go to the primary if it is unavailable
+     * Returns the replica pool size (0 if it could not be opened)
+     */
+    private int connectReplica() {
+        try {
+            HikariConfig replicaConfig = createPoolConfig("storage.mysql.replica", "EasyHomes-ReadPool");
+            replicaConfig.setReadOnly(true);
+            // Fail over to the primary quickly instead of stalling reads
+            replicaConfig.setConnectionTimeout(config.getInt("storage.mysql.replica.connection-timeout", 1000));
+            // Never block startup on the replica
+            replicaConfig.setInitializationFailTimeout(-1);
+            replicaSource = new HikariDataSource(replicaConfig);
+            plugin.getLogger().info("MySQL read replica: " + replicaConfig.getJdbcUrl());
+            return replicaConfig.getMaximumPoolSize();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to open the MySQL read replica pool, reading from the primary: " + e.getMessage());
+            replicaSource = null;
+            return 0;
+        }
+    }
+
+    /**
+     * Pool settings from a config section - unset replica settings inherit the primary's
+     */
+    private HikariConfig createPoolConfig(String path, String poolName) {
+        HikariConfig hikariConfig = new HikariConfig();
+
+        // Connection settings
+        String host = config.getString(path + ".host", config.getString("storage.mysql.host", "localhost"));
+        int port = config.getInt(path + ".port", config.getInt("storage.mysql.port", 3306));
+        String database = config.getString(path + ".database", config.getString("storage.mysql.database", "minecraft"));
+        String username = config.getString(path + ".username", config.getString("storage.mysql.username", "root"));
+        String password = config.getString(path + ".password", config.getString("storage.mysql.password", ""));
+        boolean useSSL = config.getBoolean(path + ".use-ssl", config.getBoolean("storage.mysql.use-ssl", false));
+
+        hikariConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=" + useSSL + "&autoReconnect=true");
+        hikariConfig.setUsername(username);
+        hikariConfig.setPassword(password);
+
+        // Pool settings
+        hikariConfig.setMaximumPoolSize(config.getInt(path + ".pool-size", config.getInt("storage.mysql.pool-size", 10)));
+        hikariConfig.setMinimumIdle(2);
+        hikariConfig.setConnectionTimeout(config.getInt("storage.mysql.connection-timeout", 5000));
+        hikariConfig.setIdleTimeout(600000); // 10 minutes
+        hikariConfig.setMaxLifetime(1800000); // 30 minutes
+        hikariConfig.setLeakDetectionThreshold(60000); // 1 minute
+
+        // Connection test
+        hikariConfig.setConnectionTestQuery("SELECT 1");
+
+        // Pool name
+        hikariConfig.setPoolName(poolName);
+
+        // Additional properties for MySQL optimization
+        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        hikariConfig.addDataSourceProperty("useLocalSessionState", "true");
+        hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+        hikariConfig.addDataSourceProperty("cacheResultSetMetadata", "true");
+        hikariConfig.addDataSourceProperty("cacheServerConfiguration", "true");
+        hikariConfig.addDataSourceProperty("elideSetAutoCommits", "true");
+        hikariConfig.addDataSourceProperty("maintainTimeStats", "false");
+
+        return hikariConfig;
+    }
+
+    /**
+     * Apply pending schema migrations (blocking)
+     */
+    private void migrateSchema(HikariDataSource source) throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(plugin);
+
+        // The pool is not ready for callers yet - use it directly
+        try (Connection conn = source.getConnection()) {
+            int version = migrator.migrate(conn);
+
+            if (version > migrator.getLatestVersion()) {
+                writable = false;
+                plugin.getLogger().severe("Database schema version " + version + " is newer than this version of EasyHomes supports ("
+                        + migrator.getLatestVersion() + "). Homes are read-only until the plugin is updated.");
+            } else {
+                plugin.getLogger().info("Database schema is up to date (version " + version + ")");
             }
-            
-            // Create players table
-            try (PreparedStatement stmt = conn.prepareStatement(playersTable)) {
-                stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Wait for schema migrations - never blocks the main thread
+     * Off the main thread, callers wait for the first background connection attempt only; if it failed they
+     * fail fast while connecting is retried
+     */
+    private void awaitSchema() throws SQLException {
+        CompletableFuture<Void> ready = schemaReady;
+        if (ready == null || ready.isDone() && !ready.isCompletedExceptionally()) {
+            return;
+        }
+
+        if (!ready.isDone()) {
+            if (startupError == null && plugin.getServer().isPrimaryThread()) {
+                throw new SQLException("MySQL is still starting");
             }
-            
-            // Create statistics table
-            try (PreparedStatement stmt = conn.prepareStatement(statsTable)) {
-                stmt.executeUpdate();
+            firstAttempt.join();
+
+            String error = startupError;
+            if (!ready.isDone() && error != null) {
+                throw new CircuitOpenException("MySQL is not reachable yet: " + error);
             }
-            
-            plugin.getLogger().info("Database tables created/verified successfully!");
-            
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to create database tables!", e);
+        }
+        try {
+            // Done by now, except for a blocking connect() whose migration is still running
+            ready.join();
+        } catch (CompletionException e) {
+            throw new SQLException("Database schema migration failed", e.getCause());
         }
     }
 
@@ -174,23 +377,237 @@ public class DatabaseManager {
      * Get a connection from the pool
      */
     public Connection getConnection() throws SQLException {
-        if (!enabled || dataSource == null) {
+        if (!enabled) {
+            throw new SQLException("Database is not enabled or initialized");
+        }
+        CircuitBreaker breaker = circuitBreaker;
+        if (breaker != null && !breaker.allowRequest()) {
+            throw new CircuitOpenException("MySQL is unavailable (circuit breaker open)");
+        }
+        awaitSchema();
+
+        HikariDataSource source = dataSource;
+        if (source == null) {
             throw new SQLException("Database is not enabled or initialized");
         }
-        return dataSource.getConnection();
+        try {
+            Connection conn = source.getConnection();
+            if (breaker != null) {
+                breaker.recordSuccess();
+            }
+            return conn;
+        } catch (SQLException e) {
+            if (breaker != null && breaker.recordFailure(e)) {
+                plugin.getLogger().warning("MySQL failed " + breaker.getFailureThreshold() + " times in a row"
+                        + " - serving homes from cache and YAML until it recovers: " + e.getMessage());
+                scheduleProbe();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Check the database again after the probe interval
+     */
+    private void scheduleProbe() {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        probeTask = plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, this::probe, probeIntervalTicks);
+    }
+
+    /**
+     * Close the circuit breaker once MySQL answers again, otherwise try later
+     */
+    private void probe() {
+        CircuitBreaker breaker = circuitBreaker;
+        if (dataSource == null || dataSource.isClosed() || !breaker.startProbe()) {
+            return;
+        }
+
+        long openMillis = breaker.getOpenMillis();
+        try (Connection conn = dataSource.getConnection()) {
+            if (!conn.isValid(2)) {
+                throw new SQLException("Connection validation failed");
+            }
+            breaker.finishProbe(null);
+            plugin.getLogger().info("MySQL is reachable again after " + openMillis / 1000 + "s - circuit breaker closed");
+            notifyAvailable();
+        } catch (SQLException e) {
+            breaker.finishProbe(e);
+            scheduleProbe();
+        }
+    }
+
+    /**
+     * Run a task (on a background thread) whenever MySQL becomes usable again
+     */
+    public void onAvailable(Runnable listener) {
+        availableListeners.add(listener);
+    }
+
+    private void notifyAvailable() {
+        for (Runnable listener : availableListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "MySQL availability listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Check if MySQL is enabled and the circuit breaker lets connections through
+     */
+    public boolean isAvailable() {
+        CircuitBreaker breaker = circuitBreaker;
+        CompletableFuture<Void> ready = schemaReady;
+        return isEnabled() && ready != null && ready.isDone() && !ready.isCompletedExceptionally()
+                && (breaker == null || breaker.getState() == CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Get circuit breaker and connection pool status
+     */
+    public String getStatus() {
+        CircuitBreaker breaker = circuitBreaker;
+        String status = breaker != null ? breaker.getStats() : "Circuit breaker disabled";
+        CompletableFuture<Void> ready = schemaReady;
+        if (ready != null && !ready.isDone()) {
+            String error = startupError;
+            status = (error != null ? "Connecting (retrying: " + error + ")" : "Connecting") + " | " + status;
+        }
+
+        HikariPoolMXBean pool = dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+        if (pool != null) {
+            status += String.format(" | Pool: %d active, %d idle, %d total, %d waiting",
+                    pool.getActiveConnections(), pool.getIdleConnections(),
+                    pool.getTotalConnections(), pool.getThreadsAwaitingConnection());
+        }
+        return status;
     }
 
     /**
-     * Check if database is enabled and ready
+     * Get a connection for writing - refused while the schema is newer than this plugin understands
+     */
+    public Connection getWriteConnection() throws SQLException {
+        Connection conn = getConnection();
+        if (!writable) {
+            conn.close();
+            throw new SQLException("Database schema is newer than this version of EasyHomes - writes are disabled");
+        }
+        return conn;
+    }
+
+    /**
+     * Get a connection for reads that tolerate replication lag - from the replica if one is configured
+     * Falls back to the primary while the replica is unreachable
+     */
+    public Connection getReadConnection() throws SQLException {
+        HikariDataSource replica = replicaSource;
+        if (replica == null || System.currentTimeMillis() < replicaRetryAt) {
+            return getConnection();
+        }
+        if (!enabled) {
+            throw new SQLException("Database is not enabled or initialized");
+        }
+
+        awaitSchema();
+        try {
+            Connection conn = replica.getConnection();
+            replicaReads.incrementAndGet();
+            return conn;
+        } catch (SQLException e) {
+            replicaFallbacks.incrementAndGet();
+            replicaRetryAt = System.currentTimeMillis() + REPLICA_RETRY_MILLIS;
+            plugin.getLogger().warning("MySQL read replica unavailable, reading from the primary for "
+                    + REPLICA_RETRY_MILLIS / 1000 + "s: " + e.getMessage());
+            return getConnection();
+        }
+    }
+
+    /**
+     * Whether a read replica is configured
+     */
+    public boolean hasReplica() {
+        return replicaSource != null;
+    }
+
+    /**
+     * Get read routing statistics
+     */
+    public String getReplicaStats() {
+        return String.format("Replica reads: %d, Fallbacks to primary: %d", replicaReads.get(), replicaFallbacks.get());
+    }
+
+    /**
+     * Check if MySQL is in use - the pool may still be opening in the background
      */
     public boolean isEnabled() {
-        return enabled && dataSource != null && !dataSource.isClosed();
+        HikariDataSource source = dataSource;
+        return enabled && !closed && (source == null || !source.isClosed());
+    }
+
+    /**
+     * Check if the first background connection attempt has finished, successful or not
+     * Storage calls made before that wait for MySQL; later ones fail fast while it is unreachable
+     */
+    public boolean isReady() {
+        return firstAttempt.isDone();
+    }
+
+    /**
+     * Completes once the first background connection attempt has finished
+     */
+    public CompletableFuture<Void> whenReady() {
+        return firstAttempt;
+    }
+
+    /**
+     * Run blocking JDBC work on the database executor
+     * A full queue fails the returned future instead of throwing to the caller
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Run blocking JDBC work on the database executor
+     */
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public DatabaseExecutor getExecutor() {
+        return executor;
     }
 
     /**
      * Close database connection pool
      */
     public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        BukkitTask probe = probeTask;
+        if (probe != null) {
+            probe.cancel();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (replicaSource != null && !replicaSource.isClosed()) {
+            replicaSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             plugin.getLogger().info("MySQL connection pool closed.");
@@ -201,12 +618,15 @@ public class DatabaseManager {
      * Execute async database operation
      */
     public void executeAsync(DatabaseOperation operation) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+        runAsync(() -> {
             try (Connection conn = getConnection()) {
                 operation.execute(conn);
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, "Database operation failed", e);
             }
+        }).exceptionally(error -> {
+            plugin.getLogger().log(Level.WARNING, "Database operation rejected", error);
+            return null;
         });
     }
 
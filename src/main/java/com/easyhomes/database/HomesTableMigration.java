@@ -0,0 +1,162 @@
+package com.easyhomes.database;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+
+/**
+ * Converts easyhomes_homes from the original layout (VARCHAR(36) UUIDs, surrogate id, three secondary
+ * indexes) to the compact layout without blocking writes from other servers sharing the database.
+ *
+ * Triggers mirror writes to the old table into the new one while existing rows are copied in id
+ * ranges; the tables are then swapped with one atomic RENAME. The old table is kept as
+ * easyhomes_homes_legacy and can be dropped once the migration is verified.
+ */
+class HomesTableMigration {
+    static final String TABLE = "easyhomes_homes";
+    private static final String NEW_TABLE = "easyhomes_homes_new";
+    private static final String LEGACY_TABLE = "easyhomes_homes_legacy";
+    private static final String[] TRIGGERS = {
+            "easyhomes_homes_mig_ins", "easyhomes_homes_mig_upd", "easyhomes_homes_mig_del"};
+    private static final int CHUNK_SIZE = 5000;
+
+    // Text UUID of the old layout to BINARY(16)
+    private static final String TO_BINARY = "UNHEX(REPLACE(%s, '-', ''))";
+    private static final String COLUMNS = "player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, updated_at";
+
+    private final Plugin plugin;
+
+    HomesTableMigration(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * CREATE statement of the compact layout
+     * The primary key clusters rows by player, so per-player lookups read one contiguous range
+     */
+    static String createTable(String name) {
+        return "CREATE TABLE IF NOT EXISTS `" + name + "` (" +
+                "`player_uuid` BINARY(16) NOT NULL," +
+                "`home_name` VARCHAR(32) NOT NULL," +
+                "`world` VARCHAR(64) NOT NULL," +
+                "`x` DOUBLE NOT NULL," +
+                "`y` DOUBLE NOT NULL," +
+                "`z` DOUBLE NOT NULL," +
+                "`yaw` FLOAT NOT NULL," +
+                "`pitch` FLOAT NOT NULL," +
+                "`created_at` BIGINT NOT NULL," +
+                "`updated_at` BIGINT NOT NULL," +
+                "PRIMARY KEY (`player_uuid`, `home_name`)," +
+                "INDEX `idx_world_xz` (`world`, `x`, `z`)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
+    }
+
+    /**
+     * Whether easyhomes_homes still uses the original layout
+     */
+    static boolean isLegacy(Connection conn) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, TABLE, "player_uuid")) {
+            return rs.next() && rs.getString("TYPE_NAME").toUpperCase().contains("CHAR");
+        }
+    }
+
+    /**
+     * Run the migration (blocking)
+     */
+    void run(Connection conn) throws SQLException {
+        long start = System.currentTimeMillis();
+        plugin.getLogger().info("Converting " + TABLE + " to the compact layout (binary UUIDs)...");
+
+        // Each copied range commits on its own so row locks are held briefly
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(true);
+
+        try (Statement stmt = conn.createStatement()) {
+            // Leftovers of an interrupted attempt
+            dropTriggers(stmt);
+            stmt.executeUpdate("DROP TABLE IF EXISTS `" + NEW_TABLE + "`");
+            stmt.executeUpdate(createTable(NEW_TABLE));
+
+            boolean mirrored = createTriggers(stmt);
+            try {
+                long rows = copy(conn, mirrored);
+                stmt.executeUpdate("DROP TABLE IF EXISTS `" + LEGACY_TABLE + "`");
+                stmt.executeUpdate("RENAME TABLE `" + TABLE + "` TO `" + LEGACY_TABLE + "`, `"
+                        + NEW_TABLE + "` TO `" + TABLE + "`");
+
+                plugin.getLogger().info("Converted " + rows + " homes in " + (System.currentTimeMillis() - start)
+                        + "ms. The old table was kept as " + LEGACY_TABLE + " and can be dropped.");
+            } finally {
+                dropTriggers(stmt);
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Mirror writes made during the copy, or false if the user may not create triggers
+     */
+    private boolean createTriggers(Statement stmt) {
+        String newValues = String.format(TO_BINARY, "NEW.player_uuid") + ", NEW.home_name, NEW.world, NEW.x, NEW.y, NEW.z, "
+                + "NEW.yaw, NEW.pitch, NEW.created_at, NEW.updated_at";
+        String deleteOld = "DELETE FROM `" + NEW_TABLE + "` WHERE player_uuid = " + String.format(TO_BINARY, "OLD.player_uuid")
+                + " AND home_name = OLD.home_name";
+
+        try {
+            stmt.executeUpdate("CREATE TRIGGER `" + TRIGGERS[0] + "` AFTER INSERT ON `" + TABLE + "` FOR EACH ROW "
+                    + "REPLACE INTO `" + NEW_TABLE + "` (" + COLUMNS + ") VALUES (" + newValues + ")");
+            stmt.executeUpdate("CREATE TRIGGER `" + TRIGGERS[1] + "` AFTER UPDATE ON `" + TABLE + "` FOR EACH ROW BEGIN "
+                    + deleteOld + "; "
+                    + "REPLACE INTO `" + NEW_TABLE + "` (" + COLUMNS + ") VALUES (" + newValues + "); END");
+            stmt.executeUpdate("CREATE TRIGGER `" + TRIGGERS[2] + "` AFTER DELETE ON `" + TABLE + "` FOR EACH ROW "
+                    + deleteOld);
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not create migration triggers (missing TRIGGER privilege?) - "
+                    + "writes from other servers during the conversion may be lost", e);
+            return false;
+        }
+    }
+
+    /**
+     * Copy existing rows in primary key ranges so no statement locks the whole table
+     */
+    private long copy(Connection conn, boolean mirrored) throws SQLException {
+        long minId;
+        long maxId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id) FROM `" + TABLE + "`")) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+        }
+
+        // INSERT IGNORE - rows already written by a trigger are newer than the copy
+        String copy = "INSERT IGNORE INTO `" + NEW_TABLE + "` (" + COLUMNS + ") "
+                + "SELECT " + String.format(TO_BINARY, "player_uuid") + ", home_name, world, x, y, z, yaw, pitch, created_at, updated_at "
+                + "FROM `" + TABLE + "` WHERE id BETWEEN ? AND ?"
+                + (mirrored ? " LOCK IN SHARE MODE" : "");
+
+        long rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(copy)) {
+            for (long from = minId; from <= maxId; from += CHUNK_SIZE) {
+                stmt.setLong(1, from);
+                stmt.setLong(2, from + CHUNK_SIZE - 1);
+                rows += stmt.executeUpdate();
+            }
+        }
+        return rows;
+    }
+
+    private static void dropTriggers(Statement stmt) throws SQLException {
+        for (String trigger : TRIGGERS) {
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS `" + trigger + "`");
+        }
+    }
+}
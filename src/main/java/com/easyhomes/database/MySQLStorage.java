@@ -1,8 +1,14 @@
 package com.easyhomes.database;
 
 import com.easyhomes.model.Home;
+import com.easyhomes.storage.HomeWrite;
+import com.easyhomes.storage.LastSeen;
+import com.easyhomes.storage.OwnedHome;
+import com.easyhomes.storage.StorageBackend;
+import com.easyhomes.util.QueryMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.plugin.Plugin;
 
@@ -10,38 +16,178 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
  * MySQL implementation of home storage
  * All operations are async to prevent main thread blocking
  */
-public class MySQLStorage {
+public class MySQLStorage implements StorageBackend {
+    private static final String UPSERT_HOME = "INSERT INTO easyhomes_homes " +
+            "(player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, updated_at, version, write_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "world = VALUES(world), x = VALUES(x), y = VALUES(y), z = VALUES(z), " +
+            "yaw = VALUES(yaw), pitch = VALUES(pitch), updated_at = VALUES(updated_at), version = version + 1, " +
+            "write_id = VALUES(write_id)";
+    private static final String DELETE_HOME = "DELETE FROM easyhomes_homes WHERE player_uuid = ? AND home_name = ?";
+    // Compare-and-set writes - no row is affected if another version is stored
+    private static final String INSERT_HOME = "INSERT IGNORE INTO easyhomes_homes " +
+            "(player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, updated_at, version, write_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_HOME = "UPDATE easyhomes_homes SET " +
+            "world = ?, x = ?, y = ?, z = ?, yaw = ?, pitch = ?, updated_at = ?, version = ?, write_id = ? " +
+            "WHERE player_uuid = ? AND home_name = ? AND version = ?";
+    private static final String DELETE_HOME_VERSION = DELETE_HOME + " AND version = ?";
+    private static final int MAX_CONFLICT_RETRIES = 3;
+
+    private static final String UPSERT_LAST_SEEN = "INSERT INTO easyhomes_players (uuid, name, last_seen) " +
+            "VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), last_seen = GREATEST(last_seen, VALUES(last_seen))";
+
     private final Plugin plugin;
     private final DatabaseManager databaseManager;
+    private final QueryMetrics metrics;
+    // Cross-server invalidation (null when storage.mysql.sync is disabled)
+    private final ChangeLog changeLog;
+    // Told about players reloaded after remote changes and write conflicts
+    private volatile Consumer<Set<UUID>> changeListener;
+    // Players written recently - their reads go to the primary until the replica has caught up
+    private final Cache<UUID, Boolean> recentWriters;
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong reapplied = new AtomicLong();
+    private final AtomicLong alreadyApplied = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    // Owners of homes saved before last-seen tracking existed get a players row once
+    private volatile boolean lastSeenSeeded;
 
-    public MySQLStorage(Plugin plugin, DatabaseManager databaseManager) {
+    public MySQLStorage(Plugin plugin, DatabaseManager databaseManager, QueryMetrics metrics, ChangeLog changeLog,
+            long readYourWritesMillis) {
         this.plugin = plugin;
         this.databaseManager = databaseManager;
+        this.metrics = metrics;
+        this.changeLog = changeLog;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Math.max(1, readYourWritesMillis), TimeUnit.MILLISECONDS)
+                .build();
     }
 
     /**
-     * Load all homes for a player from database
+     * Connection for reading a player's homes - the primary if the player was written recently
+     * (read-your-writes), otherwise the read replica if configured
      */
+    private Connection readConnection(UUID playerId) throws SQLException {
+        return readConnection(Collections.singleton(playerId));
+    }
+
+    /**
+     * Connection for reading the homes of several players - the primary if any of them was written recently
+     */
+    private Connection readConnection(Collection<UUID> players) throws SQLException {
+        if (!databaseManager.hasReplica()) {
+            return databaseManager.getConnection();
+        }
+        for (UUID playerId : players) {
+            if (recentWriters.getIfPresent(playerId) != null) {
+                return databaseManager.getConnection();
+            }
+        }
+        return databaseManager.getReadConnection();
+    }
+
+    /**
+     * Route the next reads of these players to the primary
+     */
+    private void markWritten(Collection<UUID> players) {
+        if (databaseManager.hasReplica()) {
+            for (UUID playerId : players) {
+                recentWriters.put(playerId, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Run a query on the database executor, recording queue wait and latency
+     */
+    private <T> CompletableFuture<T> timedQuery(String operation, Object detail, Supplier<T> task) {
+        long submitted = System.nanoTime();
+        return databaseManager.supplyAsync(() -> {
+            metrics.recordQueueWait(System.nanoTime() - submitted);
+            return metrics.time(operation, detail, task);
+        });
+    }
+
+    /**
+     * Run an update on the database executor, recording queue wait and latency
+     */
+    private CompletableFuture<Void> timedUpdate(String operation, Object detail, Runnable task) {
+        return timedQuery(operation, detail, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Log a failed fire-and-forget operation
+     */
+    private void logFailure(String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CircuitOpenException) {
+            // Already reported when the circuit breaker opened
+            plugin.getLogger().warning(message + ": " + cause.getMessage());
+            return;
+        }
+        plugin.getLogger().log(Level.WARNING, message, cause);
+    }
+
+    @Override
+    public String getName() {
+        return "MySQL";
+    }
+
+    /**
+     * Load all homes for a player from database - homes in worlds that are not loaded are skipped
+     */
+    @Override
     public CompletableFuture<Map<String, Home>> loadHomes(UUID playerId) {
-        return CompletableFuture.supplyAsync(() -> {
+        return loadHomes(playerId, true);
+    }
+
+    /**
+     * Load every home of a player, whether its world is loaded or not
+     */
+    @Override
+    public CompletableFuture<Map<String, Home>> loadAllHomes(UUID playerId) {
+        return loadHomes(playerId, false);
+    }
+
+    private CompletableFuture<Map<String, Home>> loadHomes(UUID playerId, boolean loadedWorldsOnly) {
+        return timedQuery(loadedWorldsOnly ? "loadHomes" : "loadAllHomes", playerId, () -> {
             Map<String, Home> homes = new HashMap<>();
             
-            String query = "SELECT * FROM easyhomes_homes WHERE player_uuid = ?";
+            String query = "SELECT home_name, world, x, y, z, yaw, pitch, created_at, version FROM easyhomes_homes WHERE player_uuid = ?";
             
-            try (Connection conn = databaseManager.getConnection();
+            try (Connection conn = readConnection(playerId);
                  PreparedStatement stmt = conn.prepareStatement(query)) {
                 
-                stmt.setString(1, playerId.toString());
+                stmt.setBytes(1, UuidCodec.toBytes(playerId));
                 
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
@@ -53,20 +199,22 @@ public class MySQLStorage {
                         float yaw = rs.getFloat("yaw");
                         float pitch = rs.getFloat("pitch");
                         long createdAt = rs.getLong("created_at");
+                        long version = rs.getLong("version");
                         
                         World world = Bukkit.getWorld(worldName);
-                        if (world == null) {
+                        if (loadedWorldsOnly && world == null) {
                             plugin.getLogger().warning("World '" + worldName + "' not found for home '" + homeName + "' of player " + playerId);
                             continue;
                         }
                         
-                        Home home = new Home(homeName, worldName, x, y, z, yaw, pitch, createdAt);
+                        Home home = new Home(homeName, worldName, x, y, z, yaw, pitch, createdAt, version);
                         homes.put(homeName.toLowerCase(), home);
                     }
                 }
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to load homes for player " + playerId, e);
+                // Propagate - an empty result would look like a player without homes
+                throw new CompletionException(e);
             }
             
             return homes;
@@ -74,59 +222,444 @@ public class MySQLStorage {
     }
 
     /**
-     * Save or update a home in database
+     * Load the homes of several players with one query (WHERE player_uuid IN (...))
      */
-    public CompletableFuture<Void> saveHome(UUID playerId, Home home) {
-        return CompletableFuture.runAsync(() -> {
-            String query = "INSERT INTO easyhomes_homes " +
-                    "(player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, updated_at) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
-                    "ON DUPLICATE KEY UPDATE " +
-                    "world = VALUES(world), x = VALUES(x), y = VALUES(y), z = VALUES(z), " +
-                    "yaw = VALUES(yaw), pitch = VALUES(pitch), updated_at = VALUES(updated_at)";
-            
+    @Override
+    public CompletableFuture<Map<UUID, Map<String, Home>>> loadHomes(List<UUID> players) {
+        if (players.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+
+        return timedQuery("loadHomesBulk", players.size() + " players", () -> {
+            Map<UUID, Map<String, Home>> homes = new HashMap<>();
+            StringBuilder query = new StringBuilder("SELECT player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, version"
+                    + " FROM easyhomes_homes WHERE player_uuid IN (");
+            for (UUID playerId : players) {
+                query.append(homes.isEmpty() ? "?" : ", ?");
+                homes.put(playerId, new HashMap<>());
+            }
+            query.append(')');
+
+            try (Connection conn = readConnection(players);
+                 PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+
+                int index = 1;
+                for (UUID playerId : players) {
+                    stmt.setBytes(index++, UuidCodec.toBytes(playerId));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        UUID playerId = UuidCodec.fromBytes(rs.getBytes("player_uuid"));
+                        Home home = readHome(rs);
+                        if (Bukkit.getWorld(home.getWorldName()) == null) {
+                            plugin.getLogger().warning("World '" + home.getWorldName() + "' not found for home '" + home.getName() + "' of player " + playerId);
+                            continue;
+                        }
+                        homes.get(playerId).put(home.getName().toLowerCase(), home);
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+
+            return homes;
+        });
+    }
+
+    /**
+     * List all players that have homes in database
+     */
+    @Override
+    public CompletableFuture<List<UUID>> listPlayers() {
+        return timedQuery("listPlayers", "all", () -> {
+            List<UUID> players = new ArrayList<>();
+
             try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT DISTINCT player_uuid FROM easyhomes_homes");
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    players.add(UuidCodec.fromBytes(rs.getBytes("player_uuid")));
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+
+            return players;
+        });
+    }
+
+    /**
+     * Stream all homes row by row instead of buffering the whole table
+     */
+    @Override
+    public CompletableFuture<Void> forEachHome(BiConsumer<UUID, Home> consumer) {
+        return streamHomes("", null, consumer);
+    }
+
+    /**
+     * Stream the homes of one world using the (world, x, z) index
+     */
+    @Override
+    public CompletableFuture<Void> forEachHomeInWorld(String world, BiConsumer<UUID, Home> consumer) {
+        return streamHomes(" WHERE world = ?", world, consumer);
+    }
+
+    private CompletableFuture<Void> streamHomes(String where, String world, BiConsumer<UUID, Home> consumer) {
+        return timedUpdate(world != null ? "streamHomesInWorld" : "streamHomes", world != null ? world : "all", () -> {
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                         "SELECT player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, version FROM easyhomes_homes" + where,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                // Tells MySQL Connector/J to stream the result set
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                if (world != null) {
+                    stmt.setString(1, world);
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(UuidCodec.fromBytes(rs.getBytes("player_uuid")), readHome(rs));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Find homes in a rectangle of a world using the (world, x, z) index
+     */
+    @Override
+    public CompletableFuture<List<OwnedHome>> findHomesInArea(String world, double minX, double minZ, double maxX, double maxZ) {
+        return timedQuery("findHomesInArea", world, () -> {
+            List<OwnedHome> homes = new ArrayList<>();
+            String query = "SELECT player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, version FROM easyhomes_homes " +
+                    "WHERE world = ? AND x BETWEEN ? AND ? AND z BETWEEN ? AND ?";
+
+            try (Connection conn = databaseManager.getReadConnection();
                  PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setString(1, world);
+                stmt.setDouble(2, minX);
+                stmt.setDouble(3, maxX);
+                stmt.setDouble(4, minZ);
+                stmt.setDouble(5, maxZ);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        homes.add(new OwnedHome(UuidCodec.fromBytes(rs.getBytes("player_uuid")), readHome(rs)));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+
+            return homes;
+        });
+    }
+
+    /**
+     * Route the players' reads to the primary for a while and tell other servers which players changed
+     * (the latter only with storage.mysql.sync)
+     */
+    private void recordChange(Connection conn, Collection<UUID> players) throws SQLException {
+        markWritten(players);
+        if (changeLog != null) {
+            changeLog.record(conn, players);
+        }
+    }
+
+    private static Home readHome(ResultSet rs) throws SQLException {
+        return new Home(rs.getString("home_name"), rs.getString("world"),
+                rs.getDouble("x"), rs.getDouble("y"), rs.getDouble("z"),
+                rs.getFloat("yaw"), rs.getFloat("pitch"), rs.getLong("created_at"), rs.getLong("version"));
+    }
+
+    /**
+     * Save or update a home in database, overwriting whatever is stored
+     */
+    public CompletableFuture<Void> saveHome(UUID playerId, Home home) {
+        return timedUpdate("saveHome", playerId, () -> {
+            try (Connection conn = databaseManager.getWriteConnection();
+                 PreparedStatement stmt = conn.prepareStatement(UPSERT_HOME)) {
                 
-                Location loc = home.getLocation();
-                long now = System.currentTimeMillis();
-                
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, home.getName());
-                stmt.setString(3, loc.getWorld().getName());
-                stmt.setDouble(4, loc.getX());
-                stmt.setDouble(5, loc.getY());
-                stmt.setDouble(6, loc.getZ());
-                stmt.setFloat(7, loc.getYaw());
-                stmt.setFloat(8, loc.getPitch());
-                stmt.setLong(9, home.getCreatedAt());
-                stmt.setLong(10, now);
-                
+                bindHome(stmt, playerId, home, System.currentTimeMillis(), Math.max(1, home.getVersion()), 0);
                 stmt.executeUpdate();
+                recordChange(conn, Collections.singleton(playerId));
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to save home '" + home.getName() + "' for player " + playerId, e);
+                throw new CompletionException(e);
             }
+        }).exceptionally(error -> {
+            logFailure("Failed to save home '" + home.getName() + "' for player " + playerId, error);
+            return null;
         });
     }
 
+    /**
+     * Bind upsert parameters for a home
+     */
+    private void bindHome(PreparedStatement stmt, UUID playerId, Home home, long updatedAt, long version, long writeId)
+            throws SQLException {
+        stmt.setBytes(1, UuidCodec.toBytes(playerId));
+        stmt.setString(2, home.getName());
+        stmt.setString(3, home.getWorldName());
+        stmt.setDouble(4, home.getX());
+        stmt.setDouble(5, home.getY());
+        stmt.setDouble(6, home.getZ());
+        stmt.setFloat(7, home.getYaw());
+        stmt.setFloat(8, home.getPitch());
+        stmt.setLong(9, home.getCreatedAt());
+        stmt.setLong(10, updatedAt);
+        stmt.setLong(11, version);
+        stmt.setLong(12, writeId);
+    }
+
+    /**
+     * Apply a batch of saves and deletes in one transaction using JDBC batching
+     * Unlike single writes, failures are propagated so the caller can retry. Conditional writes that
+     * find another version stored are settled after the commit (see {@link #resolveConflicts}).
+     */
+    @Override
+    public CompletableFuture<Void> writeBatch(List<HomeWrite> writes) {
+        return timedUpdate("writeBatch", writes.size() + " writes", () -> {
+            if (writes.isEmpty()) {
+                return;
+            }
+
+            List<HomeWrite> conflicting = new ArrayList<>();
+
+            try (Connection conn = databaseManager.getWriteConnection()) {
+                conn.setAutoCommit(false);
+
+                // One statement per kind of write, with the writes in batch order to match update counts
+                Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+                Map<String, List<HomeWrite>> batched = new HashMap<>();
+                try {
+                    Set<UUID> players = new HashSet<>();
+
+                    for (HomeWrite write : writes) {
+                        players.add(write.getPlayerId());
+                        String sql = sqlFor(write);
+                        PreparedStatement stmt = statements.get(sql);
+                        if (stmt == null) {
+                            stmt = conn.prepareStatement(sql);
+                            statements.put(sql, stmt);
+                        }
+                        bindWrite(stmt, write);
+                        stmt.addBatch();
+                        batched.computeIfAbsent(sql, key -> new ArrayList<>()).add(write);
+                    }
+
+                    for (Map.Entry<String, PreparedStatement> entry : statements.entrySet()) {
+                        int[] counts = entry.getValue().executeBatch();
+                        List<HomeWrite> batch = batched.get(entry.getKey());
+                        for (int i = 0; i < counts.length; i++) {
+                            // No row matched the expected version
+                            if (counts[i] == 0 && batch.get(i).isConditional()) {
+                                conflicting.add(batch.get(i));
+                            }
+                        }
+                    }
+                    recordChange(conn, players);
+
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    for (PreparedStatement stmt : statements.values()) {
+                        stmt.close();
+                    }
+                    conn.setAutoCommit(true);
+                }
+
+                resolveConflicts(conn, conflicting);
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Statement applying a write: unconditional upsert/delete, or compare-and-set insert/update/delete
+     */
+    private static String sqlFor(HomeWrite write) {
+        if (write.isDelete()) {
+            return write.isConditional() ? DELETE_HOME_VERSION : DELETE_HOME;
+        }
+        if (!write.isConditional()) {
+            return UPSERT_HOME;
+        }
+        return write.getExpectedVersion() == HomeWrite.NO_VERSION ? INSERT_HOME : UPDATE_HOME;
+    }
+
+    private void bindWrite(PreparedStatement stmt, HomeWrite write) throws SQLException {
+        byte[] playerId = UuidCodec.toBytes(write.getPlayerId());
+        if (write.isDelete()) {
+            stmt.setBytes(1, playerId);
+            stmt.setString(2, write.getHomeName());
+            if (write.isConditional()) {
+                stmt.setLong(3, write.getExpectedVersion());
+            }
+            return;
+        }
+
+        Home home = write.getHome();
+        long version = Math.max(1, write.getNewVersion());
+        if (!write.isConditional() || write.getExpectedVersion() == HomeWrite.NO_VERSION) {
+            bindHome(stmt, write.getPlayerId(), home, System.currentTimeMillis(), version, write.getId());
+            return;
+        }
+
+        stmt.setString(1, home.getWorldName());
+        stmt.setDouble(2, home.getX());
+        stmt.setDouble(3, home.getY());
+        stmt.setDouble(4, home.getZ());
+        stmt.setFloat(5, home.getYaw());
+        stmt.setFloat(6, home.getPitch());
+        stmt.setLong(7, System.currentTimeMillis());
+        stmt.setLong(8, version);
+        stmt.setLong(9, write.getId());
+        stmt.setBytes(10, playerId);
+        stmt.setString(11, write.getHomeName());
+        stmt.setLong(12, write.getExpectedVersion());
+    }
+
+    /**
+     * Settle writes that lost a compare-and-set by the stored row, never by clocks (see {@link #resolve})
+     * Affected players are then reloaded so caches pick up the stored versions
+     */
+    private void resolveConflicts(Connection conn, List<HomeWrite> writes) throws SQLException {
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> players = new HashSet<>();
+        for (HomeWrite write : writes) {
+            players.add(write.getPlayerId());
+            conflicts.incrementAndGet();
+            switch (reapply(conn, write)) {
+                case APPLIED:
+                    alreadyApplied.incrementAndGet();
+                    break;
+                case RETRY:
+                    reapplied.incrementAndGet();
+                    break;
+                default:
+                    superseded.incrementAndGet();
+            }
+        }
+        recordChange(conn, players);
+
+        Consumer<Set<UUID>> listener = changeListener;
+        if (listener != null) {
+            listener.accept(players);
+        }
+    }
+
+    /**
+     * Settle a conflicting write against the stored row
+     * Returns APPLIED if nothing is left to do, RETRY if it was written again, SUPERSEDED if it was dropped
+     */
+    private Resolution reapply(Connection conn, HomeWrite write) throws SQLException {
+        for (int attempt = 0; attempt < MAX_CONFLICT_RETRIES; attempt++) {
+            boolean stored = false;
+            long storedVersion = HomeWrite.NO_VERSION;
+            long storedWriteId = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT version, write_id FROM easyhomes_homes WHERE player_uuid = ? AND home_name = ?")) {
+                stmt.setBytes(1, UuidCodec.toBytes(write.getPlayerId()));
+                stmt.setString(2, write.getHomeName());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        stored = true;
+                        storedVersion = rs.getLong("version");
+                        storedWriteId = rs.getLong("write_id");
+                    }
+                }
+            }
+
+            Resolution resolution = resolve(write, stored, storedVersion, storedWriteId);
+            if (resolution == Resolution.APPLIED) {
+                return resolution;
+            }
+            if (resolution == Resolution.SUPERSEDED) {
+                plugin.getLogger().warning("Dropped a " + (write.isDelete() ? "delete" : "save") + " of home '" + write.getHomeName()
+                        + "' of player " + write.getPlayerId() + ": it was based on version " + write.getExpectedVersion()
+                        + ", but version " + storedVersion + " was stored by another change - keeping the stored home");
+                return resolution;
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(sqlFor(write))) {
+                bindWrite(stmt, write);
+                if (stmt.executeUpdate() > 0) {
+                    return Resolution.RETRY;
+                }
+            }
+        }
+
+        plugin.getLogger().warning("Dropped a " + (write.isDelete() ? "delete" : "save") + " of home '" + write.getHomeName()
+                + "' of player " + write.getPlayerId() + " after " + MAX_CONFLICT_RETRIES + " conflicting updates");
+        return Resolution.SUPERSEDED;
+    }
+
+    /**
+     * Conflict policy for a write whose compare-and-set matched no row, given what is stored now:
+     * the row carries this write's id - it was applied before (a replay of an unacknowledged commit);
+     * a delete finds no row - the home is gone either way; the row still has the version the write was
+     * based on - write it again; anything else - another change won, the write is dropped
+     */
+    static Resolution resolve(HomeWrite write, boolean stored, long storedVersion, long storedWriteId) {
+        if (!stored) {
+            if (write.isDelete()) {
+                return Resolution.APPLIED;
+            }
+            return write.getExpectedVersion() == HomeWrite.NO_VERSION ? Resolution.RETRY : Resolution.SUPERSEDED;
+        }
+        if (!write.isDelete() && storedWriteId == write.getId()) {
+            return Resolution.APPLIED;
+        }
+        return storedVersion == write.getExpectedVersion() ? Resolution.RETRY : Resolution.SUPERSEDED;
+    }
+
+    /**
+     * Outcome of a conflicting write
+     */
+    enum Resolution {
+        APPLIED,
+        RETRY,
+        SUPERSEDED
+    }
+
     /**
      * Delete a home from database
      */
     public CompletableFuture<Void> deleteHome(UUID playerId, String homeName) {
-        return CompletableFuture.runAsync(() -> {
-            String query = "DELETE FROM easyhomes_homes WHERE player_uuid = ? AND home_name = ?";
-            
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(query)) {
+        return timedUpdate("deleteHome", playerId, () -> {
+            try (Connection conn = databaseManager.getWriteConnection();
+                 PreparedStatement stmt = conn.prepareStatement(DELETE_HOME)) {
                 
-                stmt.setString(1, playerId.toString());
+                stmt.setBytes(1, UuidCodec.toBytes(playerId));
                 stmt.setString(2, homeName);
                 stmt.executeUpdate();
+                recordChange(conn, Collections.singleton(playerId));
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to delete home '" + homeName + "' for player " + playerId, e);
+                throw new CompletionException(e);
             }
+        }).exceptionally(error -> {
+            logFailure("Failed to delete home '" + homeName + "' for player " + playerId, error);
+            return null;
         });
     }
 
@@ -134,19 +667,153 @@ public class MySQLStorage {
      * Delete all homes for a player
      */
     public CompletableFuture<Void> deleteAllHomes(UUID playerId) {
-        return CompletableFuture.runAsync(() -> {
+        return timedUpdate("deleteAllHomes", playerId, () -> {
             String query = "DELETE FROM easyhomes_homes WHERE player_uuid = ?";
             
-            try (Connection conn = databaseManager.getConnection();
+            try (Connection conn = databaseManager.getWriteConnection();
                  PreparedStatement stmt = conn.prepareStatement(query)) {
                 
-                stmt.setString(1, playerId.toString());
+                stmt.setBytes(1, UuidCodec.toBytes(playerId));
                 int deleted = stmt.executeUpdate();
+                recordChange(conn, Collections.singleton(playerId));
                 
                 plugin.getLogger().info("Deleted " + deleted + " homes for player " + playerId);
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to delete all homes for player " + playerId, e);
+                throw new CompletionException(e);
+            }
+        }).exceptionally(error -> {
+            logFailure("Failed to delete all homes for player " + playerId, error);
+            return null;
+        });
+    }
+
+    /**
+     * Upsert last-seen times in one transaction using JDBC batching
+     */
+    @Override
+    public CompletableFuture<Void> recordLastSeen(List<LastSeen> players) {
+        return timedUpdate("recordLastSeen", players.size() + " players", () -> {
+            if (players.isEmpty()) {
+                return;
+            }
+
+            try (Connection conn = databaseManager.getWriteConnection()) {
+                conn.setAutoCommit(false);
+
+                try (PreparedStatement stmt = conn.prepareStatement(UPSERT_LAST_SEEN)) {
+                    for (LastSeen player : players) {
+                        stmt.setString(1, player.getPlayerId().toString());
+                        stmt.setString(2, player.getName());
+                        stmt.setLong(3, player.getTime());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Players not seen since the cutoff, oldest first (uses idx_last_seen)
+     */
+    @Override
+    public CompletableFuture<List<UUID>> listInactivePlayers(long cutoff, int limit) {
+        return timedQuery("listInactivePlayers", "limit " + limit, () -> {
+            List<UUID> players = new ArrayList<>();
+
+            try (Connection conn = databaseManager.getWriteConnection()) {
+                if (!lastSeenSeeded) {
+                    // Unknown owners start their inactivity window now instead of being purged at once
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "INSERT IGNORE INTO easyhomes_players (uuid, name, last_seen) " +
+                            "SELECT h.uuid, '', ? FROM (SELECT DISTINCT " + String.format(UuidCodec.TO_TEXT, "player_uuid") +
+                            " AS uuid FROM easyhomes_homes) h " +
+                            "LEFT JOIN easyhomes_players p ON p.uuid = h.uuid WHERE p.uuid IS NULL")) {
+                        stmt.setLong(1, System.currentTimeMillis());
+                        int seeded = stmt.executeUpdate();
+                        if (seeded > 0) {
+                            plugin.getLogger().info("Started last-seen tracking for " + seeded + " players with existing homes");
+                        }
+                    }
+                    lastSeenSeeded = true;
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT uuid FROM easyhomes_players WHERE last_seen < ? ORDER BY last_seen LIMIT ?")) {
+                    stmt.setLong(1, cutoff);
+                    stmt.setInt(2, limit);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            players.add(UUID.fromString(rs.getString("uuid")));
+                        }
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+
+            return players;
+        });
+    }
+
+    /**
+     * Delete statistics and last-seen rows of players in one transaction
+     */
+    @Override
+    public CompletableFuture<Void> deletePlayerData(List<UUID> players) {
+        return timedUpdate("deletePlayerData", players.size() + " players", () -> {
+            if (players.isEmpty()) {
+                return;
+            }
+
+            StringBuilder homesQuery = new StringBuilder("DELETE FROM easyhomes_homes WHERE player_uuid IN (");
+            for (int i = 0; i < players.size(); i++) {
+                homesQuery.append(i == 0 ? "?" : ", ?");
+            }
+            homesQuery.append(')');
+
+            try (Connection conn = databaseManager.getWriteConnection()) {
+                conn.setAutoCommit(false);
+
+                // Homes go by owner too - rows the purge listing missed must not outlive the last-seen row
+                try (PreparedStatement homes = conn.prepareStatement(homesQuery.toString());
+                     PreparedStatement stats = conn.prepareStatement("DELETE FROM easyhomes_statistics WHERE player_uuid = ?");
+                     PreparedStatement info = conn.prepareStatement("DELETE FROM easyhomes_players WHERE uuid = ?")) {
+                    int index = 1;
+                    for (UUID playerId : players) {
+                        homes.setBytes(index++, UuidCodec.toBytes(playerId));
+                        stats.setString(1, playerId.toString());
+                        stats.addBatch();
+                        info.setString(1, playerId.toString());
+                        info.addBatch();
+                    }
+                    if (homes.executeUpdate() > 0) {
+                        recordChange(conn, players);
+                    }
+                    stats.executeBatch();
+                    info.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
             }
         });
     }
@@ -155,12 +822,12 @@ public class MySQLStorage {
      * Update player info (name and last seen)
      */
     public CompletableFuture<Void> updatePlayerInfo(UUID playerId, String playerName) {
-        return CompletableFuture.runAsync(() -> {
+        return timedUpdate("updatePlayerInfo", playerId, () -> {
             String query = "INSERT INTO easyhomes_players (uuid, name, last_seen) " +
                     "VALUES (?, ?, ?) " +
                     "ON DUPLICATE KEY UPDATE name = VALUES(name), last_seen = VALUES(last_seen)";
             
-            try (Connection conn = databaseManager.getConnection();
+            try (Connection conn = databaseManager.getWriteConnection();
                  PreparedStatement stmt = conn.prepareStatement(query)) {
                 
                 stmt.setString(1, playerId.toString());
@@ -169,8 +836,11 @@ public class MySQLStorage {
                 stmt.executeUpdate();
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to update player info for " + playerId, e);
+                throw new CompletionException(e);
             }
+        }).exceptionally(error -> {
+            logFailure("Failed to update player info for " + playerId, error);
+            return null;
         });
     }
 
@@ -178,13 +848,13 @@ public class MySQLStorage {
      * Increment teleport count for statistics
      */
     public CompletableFuture<Void> incrementTeleportCount(UUID playerId, String homeName) {
-        return CompletableFuture.runAsync(() -> {
+        return timedUpdate("incrementTeleportCount", playerId, () -> {
             String query = "INSERT INTO easyhomes_statistics (player_uuid, home_name, teleport_count, last_visited) " +
                     "VALUES (?, ?, 1, ?) " +
                     "ON DUPLICATE KEY UPDATE " +
                     "teleport_count = teleport_count + 1, last_visited = VALUES(last_visited)";
             
-            try (Connection conn = databaseManager.getConnection();
+            try (Connection conn = databaseManager.getWriteConnection();
                  PreparedStatement stmt = conn.prepareStatement(query)) {
                 
                 stmt.setString(1, playerId.toString());
@@ -193,8 +863,11 @@ public class MySQLStorage {
                 stmt.executeUpdate();
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to increment teleport count", e);
+                throw new CompletionException(e);
             }
+        }).exceptionally(error -> {
+            logFailure("Failed to increment teleport count", error);
+            return null;
         });
     }
 
@@ -202,10 +875,10 @@ public class MySQLStorage {
      * Get total home count across all players
      */
     public CompletableFuture<Integer> getTotalHomeCount() {
-        return CompletableFuture.supplyAsync(() -> {
+        return timedQuery("getTotalHomeCount", "all", () -> {
             String query = "SELECT COUNT(*) as count FROM easyhomes_homes";
             
-            try (Connection conn = databaseManager.getConnection();
+            try (Connection conn = databaseManager.getReadConnection();
                  PreparedStatement stmt = conn.prepareStatement(query);
                  ResultSet rs = stmt.executeQuery()) {
                 
@@ -214,9 +887,12 @@ public class MySQLStorage {
                 }
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to get total home count", e);
+                throw new CompletionException(e);
             }
             
+            return 0;
+        }).exceptionally(error -> {
+            logFailure("Failed to get total home count", error);
             return 0;
         });
     }
@@ -225,10 +901,10 @@ public class MySQLStorage {
      * Get total teleport count for a player
      */
     public CompletableFuture<Integer> getPlayerTeleportCount(UUID playerId) {
-        return CompletableFuture.supplyAsync(() -> {
+        return timedQuery("getPlayerTeleportCount", playerId, () -> {
             String query = "SELECT SUM(teleport_count) as total FROM easyhomes_statistics WHERE player_uuid = ?";
             
-            try (Connection conn = databaseManager.getConnection();
+            try (Connection conn = databaseManager.getReadConnection();
                  PreparedStatement stmt = conn.prepareStatement(query)) {
                 
                 stmt.setString(1, playerId.toString());
@@ -240,10 +916,52 @@ public class MySQLStorage {
                 }
                 
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to get teleport count for player " + playerId, e);
+                throw new CompletionException(e);
             }
             
+            return 0;
+        }).exceptionally(error -> {
+            logFailure("Failed to get teleport count for player " + playerId, error);
             return 0;
         });
     }
+
+    /**
+     * Database executor statistics
+     */
+    @Override
+    public String getStats() {
+        String stats = databaseManager.getExecutor().getStats()
+                + String.format(" | Conflicts: %d (reapplied %d, already applied %d, superseded %d)",
+                        conflicts.get(), reapplied.get(), alreadyApplied.get(), superseded.get());
+        if (databaseManager.hasReplica()) {
+            stats += " | " + databaseManager.getReplicaStats();
+        }
+        return changeLog != null ? stats + " | Sync: " + changeLog.getStats() : stats;
+    }
+
+    @Override
+    public void watchRemoteChanges(Consumer<Set<UUID>> listener) {
+        changeListener = listener;
+        if (changeLog != null) {
+            // Another server just wrote these players - the replica may not have the change yet
+            changeLog.start(players -> {
+                markWritten(players);
+                listener.accept(players);
+            });
+        }
+    }
+
+    @Override
+    public QueryMetrics getQueryMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void shutdown() {
+        if (changeLog != null) {
+            changeLog.shutdown();
+        }
+        // Connection pool is owned and closed by DatabaseManager
+    }
 }
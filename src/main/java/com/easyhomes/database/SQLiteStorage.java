@@ -0,0 +1,298 @@
+package com.easyhomes.database;
+
+import com.easyhomes.model.Home;
+import com.easyhomes.storage.HomeWrite;
+import com.easyhomes.storage.OwnedHome;
+import com.easyhomes.storage.StorageBackend;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Embedded SQLite implementation of home storage
+ * Uses the SQLite driver bundled with Spigot/Paper - no external database server needed
+ */
+public class SQLiteStorage implements StorageBackend {
+    private static final String UPSERT_HOME = "INSERT OR REPLACE INTO easyhomes_homes " +
+            "(player_uuid, home_name, world, x, y, z, yaw, pitch, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Home names are case-insensitive keys (like MySQL's collation) - tables created before NOCASE was
+    // added compare binary, so every statement matching a name asks for it
+    private static final String DELETE_HOME = "DELETE FROM easyhomes_homes WHERE player_uuid = ? AND home_name = ? COLLATE NOCASE";
+    private static final String HOME_COLUMNS = "player_uuid, home_name, world, x, y, z, yaw, pitch, created_at";
+
+    private final Plugin plugin;
+    private final File databaseFile;
+    private HikariDataSource dataSource;
+    // SQLite allows a single writer - serialize all work on one thread
+    private final ExecutorService executor;
+
+    public SQLiteStorage(Plugin plugin, File databaseFile) {
+        this.plugin = plugin;
+        this.databaseFile = databaseFile;
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "EasyHomes-SQLite");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open the database file and create tables (blocking)
+     */
+    public boolean initialize() {
+        try {
+            HikariConfig hikariConfig = new HikariConfig();
+            hikariConfig.setDriverClassName("org.sqlite.JDBC");
+            hikariConfig.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            hikariConfig.setMaximumPoolSize(1);
+            hikariConfig.setMinimumIdle(1);
+            hikariConfig.setConnectionInitSql("PRAGMA synchronous = NORMAL");
+            hikariConfig.setPoolName("EasyHomes-SQLite");
+
+            dataSource = new HikariDataSource(hikariConfig);
+            createTables();
+
+            plugin.getLogger().info("SQLite database opened: " + databaseFile.getName());
+            return true;
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to open SQLite database! Falling back to YAML storage.");
+            plugin.getLogger().warning("Error: " + e.getMessage());
+
+            if (dataSource != null && !dataSource.isClosed()) {
+                dataSource.close();
+                dataSource = null;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Create database tables if they don't exist
+     */
+    private void createTables() throws SQLException {
+        // Primary key (player_uuid, home_name) doubles as the per-player lookup index
+        String homesTable = "CREATE TABLE IF NOT EXISTS easyhomes_homes (" +
+                "player_uuid TEXT NOT NULL," +
+                "home_name TEXT NOT NULL COLLATE NOCASE," +
+                "world TEXT NOT NULL," +
+                "x REAL NOT NULL," +
+                "y REAL NOT NULL," +
+                "z REAL NOT NULL," +
+                "yaw REAL NOT NULL," +
+                "pitch REAL NOT NULL," +
+                "created_at INTEGER NOT NULL," +
+                "updated_at INTEGER NOT NULL," +
+                "PRIMARY KEY (player_uuid, home_name))";
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // WAL lets readers proceed while a write is in progress
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.executeUpdate(homesTable);
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_homes_world_xz ON easyhomes_homes (world, x, z)");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "SQLite";
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Home>> loadHomes(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Home> homes = new HashMap<>();
+            String query = "SELECT home_name, world, x, y, z, yaw, pitch, created_at FROM easyhomes_homes WHERE player_uuid = ?";
+
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setString(1, playerId.toString());
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Home home = readHome(rs);
+                        homes.put(home.getName().toLowerCase(), home);
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+
+            return homes;
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> listPlayers() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<UUID> players = new ArrayList<>();
+
+            try (Connection conn = dataSource.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT DISTINCT player_uuid FROM easyhomes_homes")) {
+                while (rs.next()) {
+                    players.add(UUID.fromString(rs.getString(1)));
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+
+            return players;
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachHome(BiConsumer<UUID, Home> consumer) {
+        return streamHomes("", null, consumer);
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachHomeInWorld(String world, BiConsumer<UUID, Home> consumer) {
+        return streamHomes(" WHERE world = ?", world, consumer);
+    }
+
+    private CompletableFuture<Void> streamHomes(String where, String world, BiConsumer<UUID, Home> consumer) {
+        return CompletableFuture.runAsync(() -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT " + HOME_COLUMNS + " FROM easyhomes_homes" + where)) {
+                if (world != null) {
+                    stmt.setString(1, world);
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(UUID.fromString(rs.getString("player_uuid")), readHome(rs));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<OwnedHome>> findHomesInArea(String world, double minX, double minZ, double maxX, double maxZ) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<OwnedHome> homes = new ArrayList<>();
+            String query = "SELECT " + HOME_COLUMNS + " FROM easyhomes_homes " +
+                    "WHERE world = ? AND x BETWEEN ? AND ? AND z BETWEEN ? AND ?";
+
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setString(1, world);
+                stmt.setDouble(2, minX);
+                stmt.setDouble(3, maxX);
+                stmt.setDouble(4, minZ);
+                stmt.setDouble(5, maxZ);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        homes.add(new OwnedHome(UUID.fromString(rs.getString("player_uuid")), readHome(rs)));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+
+            return homes;
+        }, executor);
+    }
+
+    private static Home readHome(ResultSet rs) throws SQLException {
+        return new Home(rs.getString("home_name"), rs.getString("world"),
+                rs.getDouble("x"), rs.getDouble("y"), rs.getDouble("z"),
+                rs.getFloat("yaw"), rs.getFloat("pitch"), rs.getLong("created_at"));
+    }
+
+    @Override
+    public CompletableFuture<Void> writeBatch(List<HomeWrite> writes) {
+        return CompletableFuture.runAsync(() -> {
+            if (writes.isEmpty()) {
+                return;
+            }
+
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(false);
+
+                try (PreparedStatement upsert = conn.prepareStatement(UPSERT_HOME);
+                     PreparedStatement delete = conn.prepareStatement(DELETE_HOME)) {
+
+                    long now = System.currentTimeMillis();
+                    for (HomeWrite write : writes) {
+                        // Also drops a stored home whose name differs only in case - the upsert replaces it
+                        delete.setString(1, write.getPlayerId().toString());
+                        delete.setString(2, write.getHomeName());
+                        delete.executeUpdate();
+
+                        if (!write.isDelete()) {
+                            Home home = write.getHome();
+                            upsert.setString(1, write.getPlayerId().toString());
+                            upsert.setString(2, home.getName());
+                            upsert.setString(3, home.getWorldName());
+                            upsert.setDouble(4, home.getX());
+                            upsert.setDouble(5, home.getY());
+                            upsert.setDouble(6, home.getZ());
+                            upsert.setFloat(7, home.getYaw());
+                            upsert.setFloat(8, home.getPitch());
+                            upsert.setLong(9, home.getCreatedAt());
+                            upsert.setLong(10, now);
+                            upsert.executeUpdate();
+                        }
+                    }
+
+                    // One transaction = one fsync for the whole batch
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+            plugin.getLogger().info("SQLite database closed.");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.easyhomes.database;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Brings the MySQL schema to the version this plugin expects
+ * Applied versions are recorded in easyhomes_schema; new migrations are appended to the list and never
+ * changed once released. Steps must be idempotent: MySQL commits DDL implicitly, so a step can be
+ * re-run if the server stopped before its version was recorded.
+ */
+class SchemaMigrator {
+    private static final String SCHEMA_TABLE = "CREATE TABLE IF NOT EXISTS `easyhomes_schema` (" +
+            "`version` INT NOT NULL PRIMARY KEY," +
+            "`description` VARCHAR(128) NOT NULL," +
+            "`applied_at` BIGINT NOT NULL" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
+    // Servers sharing the database must not migrate at the same time
+    private static final String LOCK_NAME = "easyhomes_schema";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private final Plugin plugin;
+    private final List<Migration> migrations;
+
+    SchemaMigrator(Plugin plugin) {
+        this.plugin = plugin;
+        this.migrations = Arrays.asList(
+                new Migration(1, "Create tables", this::createTables),
+                new Migration(2, "Binary UUIDs in easyhomes_homes", conn -> {
+                    if (HomesTableMigration.isLegacy(conn)) {
+                        new HomesTableMigration(plugin).run(conn);
+                    }
+                }),
+                new Migration(3, "Index last_seen, drop redundant indexes", conn -> {
+                    addIndexIfMissing(conn, "easyhomes_players", "idx_last_seen", "`last_seen`");
+                    // Prefixes of the unique keys - the unique keys already serve these lookups
+                    dropIndexIfPresent(conn, "easyhomes_players", "idx_uuid");
+                    dropIndexIfPresent(conn, "easyhomes_statistics", "idx_player_stats");
+                }),
+                new Migration(4, "Create easyhomes_changes", this::createChangesTable),
+                // Existing rows start at version 1 - 0 means "not stored" to compare-and-set writes
+                new Migration(5, "Row versions in easyhomes_homes", conn ->
+                        addColumnIfMissing(conn, "easyhomes_homes", "version", "BIGINT NOT NULL DEFAULT 1")),
+                // Id of the write that produced each row (0 = unknown) - settles conflicts of replayed writes
+                new Migration(6, "Write ids in easyhomes_homes", conn ->
+                        addColumnIfMissing(conn, "easyhomes_homes", "write_id", "BIGINT NOT NULL DEFAULT 0"))
+        );
+    }
+
+    /**
+     * Schema version this plugin writes
+     */
+    int getLatestVersion() {
+        return migrations.get(migrations.size() - 1).version;
+    }
+
+    /**
+     * Apply pending migrations in order (blocking)
+     * Returns the schema version found in the database afterwards
+     */
+    int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(SCHEMA_TABLE);
+        }
+
+        lock(conn);
+        try {
+            int version = getVersion(conn);
+            for (Migration migration : migrations) {
+                if (migration.version <= version) {
+                    continue;
+                }
+
+                long start = System.currentTimeMillis();
+                apply(conn, migration);
+                version = migration.version;
+                plugin.getLogger().info("Schema migration " + migration.version + " (" + migration.description + ") applied in "
+                        + (System.currentTimeMillis() - start) + "ms");
+            }
+            return version;
+        } finally {
+            unlock(conn);
+        }
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            migration.step.apply(conn);
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO easyhomes_schema (version, description, applied_at) VALUES (?, ?, ?)")) {
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.setLong(3, System.currentTimeMillis());
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Schema migration " + migration.version + " (" + migration.description + ") failed", e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private int getVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM easyhomes_schema")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private void lock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another server to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private void unlock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private void createTables(Connection conn) throws SQLException {
+        String playersTable = "CREATE TABLE IF NOT EXISTS `easyhomes_players` (" +
+                "`id` INT AUTO_INCREMENT PRIMARY KEY," +
+                "`uuid` VARCHAR(36) NOT NULL UNIQUE," +
+                "`name` VARCHAR(16) NOT NULL," +
+                "`last_seen` BIGINT NOT NULL," +
+                "INDEX `idx_last_seen` (`last_seen`)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
+
+        String statsTable = "CREATE TABLE IF NOT EXISTS `easyhomes_statistics` (" +
+                "`id` INT AUTO_INCREMENT PRIMARY KEY," +
+                "`player_uuid` VARCHAR(36) NOT NULL," +
+                "`home_name` VARCHAR(32) NOT NULL," +
+                "`teleport_count` INT DEFAULT 0," +
+                "`last_visited` BIGINT," +
+                "UNIQUE KEY `player_home_stats` (`player_uuid`, `home_name`)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
+
+        try (Statement stmt = conn.createStatement()) {
+            // Existing tables of older versions are left for the following migrations
+            stmt.executeUpdate(HomesTableMigration.createTable(HomesTableMigration.TABLE));
+            stmt.executeUpdate(playersTable);
+            stmt.executeUpdate(statsTable);
+        }
+    }
+
+    private void createChangesTable(Connection conn) throws SQLException {
+        // Players changed per write, polled by other servers sharing the database (storage.mysql.sync)
+        String changesTable = "CREATE TABLE IF NOT EXISTS `easyhomes_changes` (" +
+                "`id` BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "`player_uuid` BINARY(16) NOT NULL," +
+                "`server_id` BINARY(16) NOT NULL," +
+                "`changed_at` BIGINT NOT NULL," +
+                "INDEX `idx_changed_at` (`changed_at`)" +
+                ") ENGINE=InnoDB;";
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(changesTable);
+        }
+    }
+
+    /**
+     * Add an index to an existing table unless it already exists
+     */
+    private void addIndexIfMissing(Connection conn, String table, String index, String columns) throws SQLException {
+        if (hasIndex(conn, table, index)) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE `" + table + "` ADD INDEX `" + index + "` (" + columns + ")")) {
+            stmt.executeUpdate();
+        }
+        plugin.getLogger().info("Added index " + index + " to " + table);
+    }
+
+    /**
+     * Add a column to an existing table unless it already exists
+     */
+    private void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            if (rs.next()) {
+                return;
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE `" + table + "` ADD COLUMN `" + column + "` " + definition)) {
+            stmt.executeUpdate();
+        }
+        plugin.getLogger().info("Added column " + column + " to " + table);
+    }
+
+    /**
+     * Drop an index from an existing table if it exists
+     */
+    private void dropIndexIfPresent(Connection conn, String table, String index) throws SQLException {
+        if (!hasIndex(conn, table, index)) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE `" + table + "` DROP INDEX `" + index + "`")) {
+            stmt.executeUpdate();
+        }
+        plugin.getLogger().info("Dropped redundant index " + index + " from " + table);
+    }
+
+    private boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        private Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.easyhomes.database;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Conversion between UUIDs and the BINARY(16) column format
+ */
+final class UuidCodec {
+    /**
+     * SQL expression formatting a BINARY(16) column as a text UUID (MySQL 5.7 has no BIN_TO_UUID)
+     */
+    static final String TO_TEXT = "LOWER(INSERT(INSERT(INSERT(INSERT(HEX(%s), 9, 0, '-'), 14, 0, '-'), 19, 0, '-'), 24, 0, '-'))";
+
+    private UuidCodec() {
+    }
+
+    static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -16,6 +16,7 @@ import java.util.Map;
 /**
  * PlaceholderAPI expansion for EasyHomes
  * Provides placeholders for home count, limits, cooldowns, etc.
+ * Home placeholders read from memory only and never wait for storage
  */
 public class EasyHomesExpansion extends PlaceholderExpansion {
     private final HomeManager homeManager;
@@ -64,7 +65,7 @@ public class EasyHomesExpansion extends PlaceholderExpansion {
 
         // %easyhomes_count% - Current home count
         if (params.equalsIgnoreCase("count")) {
-            int count = homeManager.getHomes(player).size();
+            int count = homeManager.getCachedHomes(player).size();
             return String.valueOf(count);
         }
 
@@ -76,7 +77,7 @@ public class EasyHomesExpansion extends PlaceholderExpansion {
 
         // %easyhomes_available% - Remaining home slots
         if (params.equalsIgnoreCase("available")) {
-            int count = homeManager.getHomes(player).size();
+            int count = homeManager.getCachedHomes(player).size();
             int limit = homeManager.getHomeLimit(player);
             
             if (limit == -1) {
@@ -89,7 +90,7 @@ public class EasyHomesExpansion extends PlaceholderExpansion {
 
         // %easyhomes_list% - Comma-separated list of home names
         if (params.equalsIgnoreCase("list")) {
-            Map<String, Home> homes = homeManager.getHomes(player);
+            Map<String, Home> homes = homeManager.getCachedHomes(player);
             
             if (homes.isEmpty()) {
                 return "Brak";
@@ -121,7 +122,7 @@ public class EasyHomesExpansion extends PlaceholderExpansion {
 
         // %easyhomes_has_homes% - true/false if player has homes
         if (params.equalsIgnoreCase("has_homes")) {
-            boolean hasHomes = !homeManager.getHomes(player).isEmpty();
+            boolean hasHomes = !homeManager.getCachedHomes(player).isEmpty();
             return String.valueOf(hasHomes);
         }
 
@@ -139,7 +140,7 @@ public class EasyHomesExpansion extends PlaceholderExpansion {
 
         // %easyhomes_at_limit% - true/false if player reached limit
         if (params.equalsIgnoreCase("at_limit")) {
-            int count = homeManager.getHomes(player).size();
+            int count = homeManager.getCachedHomes(player).size();
             int limit = homeManager.getHomeLimit(player);
             
             if (limit == -1) {
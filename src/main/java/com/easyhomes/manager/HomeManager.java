@@ -2,12 +2,20 @@ package com.easyhomes.manager;
 
 import com.easyhomes.model.Home;
 import com.easyhomes.storage.HomeStorage;
+import com.easyhomes.storage.OwnedHome;
+import com.easyhomes.storage.PurgeResult;
+import com.easyhomes.storage.WarmUpResult;
+import com.easyhomes.util.QueryMetrics;
 import org.bukkit.Location;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 
 public class HomeManager {
@@ -20,6 +28,13 @@ public class HomeManager {
         this.config = config;
     }
 
+    /**
+     * Check if storage has finished starting - commands answer with a warming-up message until then
+     */
+    public boolean isStorageReady() {
+        return storage.isReady();
+    }
+
     /**
      * Get maximum homes allowed for a player
      * Checks permissions in order: unlimited, 10, 5, 3, 1
@@ -59,9 +74,18 @@ public class HomeManager {
 
     /**
      * Check if player can set more homes
+     * @deprecated blocks on storage when the player is not cached; count the homes from
+     *             {@link #getHomesAsync(Player)} and use {@link #canSetMoreHomes(Player, int)}
      */
+    @Deprecated
     public boolean canSetMoreHomes(Player player) {
-        int current = getHomeCount(player);
+        return canSetMoreHomes(player, getHomeCount(player));
+    }
+
+    /**
+     * Check if player can set more homes given an already known home count
+     */
+    public boolean canSetMoreHomes(Player player, int current) {
         int limit = getHomeLimit(player);
         
         // -1 means unlimited
@@ -74,9 +98,11 @@ public class HomeManager {
 
     /**
      * Get current home count for a player
+     * @deprecated blocks on storage when the player is not cached; use {@link #getHomesAsync(Player)}
      */
+    @Deprecated
     public int getHomeCount(Player player) {
-        return storage.getHomes(player.getUniqueId()).size();
+        return storage.getHomeCount(player.getUniqueId());
     }
 
     /**
@@ -87,8 +113,10 @@ public class HomeManager {
     }
 
     /**
-     * Set a home for a player
+     * Set a home for a player - returns before the write is persisted
+     * @deprecated use {@link #setHomeAsync(Player, String, Location)}
      */
+    @Deprecated
     public void setHome(Player player, String homeName, Location location) {
         Home home = new Home(homeName, location);
         storage.setHome(player.getUniqueId(), home);
@@ -96,28 +124,186 @@ public class HomeManager {
 
     /**
      * Get a home for a player
+     * @deprecated blocks on storage when the player is not cached; use {@link #getHomeAsync(Player, String)}
      */
+    @Deprecated
     public Home getHome(Player player, String homeName) {
         return storage.getHome(player.getUniqueId(), homeName);
     }
 
     /**
-     * Delete a home for a player
+     * Delete a home for a player - returns before the delete is persisted
+     * @deprecated use {@link #deleteHomeAsync(Player, String)}
      */
+    @Deprecated
     public void deleteHome(Player player, String homeName) {
         storage.deleteHome(player.getUniqueId(), homeName);
     }
 
     /**
      * Get all homes for a player
+     * @deprecated blocks on storage when the player is not cached; use {@link #getHomesAsync(Player)}
      */
+    @Deprecated
     public Map<String, Home> getHomes(Player player) {
         return storage.getHomes(player.getUniqueId());
     }
 
+    /**
+     * Get all homes for a player without blocking - completes on the main thread
+     */
+    public CompletableFuture<Map<String, Home>> getHomesAsync(Player player) {
+        return storage.getHomesAsync(player.getUniqueId());
+    }
+
+    /**
+     * Get a home for a player without blocking - completes on the main thread
+     */
+    public CompletableFuture<Home> getHomeAsync(Player player, String homeName) {
+        return storage.getHomeAsync(player.getUniqueId(), homeName);
+    }
+
+    /**
+     * Set a home for a player without blocking - completes on the main thread
+     */
+    public CompletableFuture<Void> setHomeAsync(Player player, String homeName, Location location) {
+        Home home = new Home(homeName, location);
+        return storage.setHomeAsync(player.getUniqueId(), home);
+    }
+
+    /**
+     * Delete a home for a player without blocking - completes on the main thread
+     */
+    public CompletableFuture<Void> deleteHomeAsync(Player player, String homeName) {
+        return storage.deleteHomeAsync(player.getUniqueId(), homeName);
+    }
+
+    /**
+     * Get the player's home closest to their position in the current world (null if none)
+     * Completes on the main thread
+     */
+    public CompletableFuture<Home> getNearestHomeAsync(Player player) {
+        return storage.getHomesAsync(player.getUniqueId()).thenApply(homes -> {
+            Location location = player.getLocation();
+            String world = location.getWorld().getName();
+
+            Home nearest = null;
+            double nearestDistance = Double.MAX_VALUE;
+            for (Home home : homes.values()) {
+                if (!home.getWorldName().equals(world)) {
+                    continue;
+                }
+
+                double dx = home.getX() - location.getX();
+                double dz = home.getZ() - location.getZ();
+                double distance = dx * dx + dz * dz;
+                if (distance < nearestDistance) {
+                    nearest = home;
+                    nearestDistance = distance;
+                }
+            }
+            return nearest;
+        });
+    }
+
+    /**
+     * Find homes of all players within a horizontal radius, nearest first
+     * Completes on the main thread
+     */
+    public CompletableFuture<List<OwnedHome>> findHomesNear(Location location, double radius) {
+        return storage.findHomesNear(location.getWorld().getName(), location.getX(), location.getZ(), radius);
+    }
+
+    /**
+     * Delete the homes of all players in a world - completes on the main thread
+     * Completes with null if another purge is already running
+     */
+    public CompletableFuture<PurgeResult> purgeWorld(String world) {
+        return storage.purgeWorld(world);
+    }
+
+    /**
+     * Latency metrics of the storage backend, or null if it does not record them
+     */
+    public QueryMetrics getQueryMetrics() {
+        return storage.getBackend().getQueryMetrics();
+    }
+
+    /**
+     * Write-behind queue and storage executor statistics
+     */
+    public String getWriteStats() {
+        return storage.getWriteStats();
+    }
+
+    /**
+     * Load the homes of several players in bulk and cache them - completes on the main thread
+     * Completes with null if a warm-up is already running
+     */
+    public CompletableFuture<WarmUpResult> warmUp(List<UUID> players, BiConsumer<Integer, Integer> progress) {
+        return storage.warmUp(players, progress);
+    }
+
+    /**
+     * Clear cached homes of offline players
+     */
+    public void clearCache() {
+        storage.clearCache();
+    }
+
+    /**
+     * Type of the active storage backend
+     */
+    public String getStorageType() {
+        return storage.getStorageType();
+    }
+
+    /**
+     * MySQL circuit breaker and pool status, or null if MySQL is not in use
+     */
+    public String getDatabaseStatus() {
+        return storage.getDatabaseStatus();
+    }
+
+    /**
+     * Check if MySQL is in use and currently reachable
+     */
+    public boolean isDatabaseAvailable() {
+        return storage.isDatabaseAvailable();
+    }
+
+    /**
+     * Cache statistics
+     */
+    public String getCacheStats() {
+        return storage.getCacheStats();
+    }
+
+    /**
+     * Spatial index statistics
+     */
+    public String getSpatialIndexStats() {
+        return storage.getSpatialIndexStats();
+    }
+
+    /**
+     * Get homes already held in memory, never touching storage.
+     * Returns an empty map (and starts loading in the background) if the player is not loaded yet.
+     */
+    public Map<String, Home> getCachedHomes(Player player) {
+        Map<String, Home> homes = storage.getCachedHomes(player.getUniqueId());
+        if (homes == null) {
+            storage.getHomesAsync(player.getUniqueId());
+            return Collections.emptyMap();
+        }
+        return homes;
+    }
+
     /**
      * Check if a home exists
+     * @deprecated blocks on storage when the player is not cached; use {@link #getHomeAsync(Player, String)}
      */
+    @Deprecated
     public boolean hasHome(Player player, String homeName) {
         return storage.getHome(player.getUniqueId(), homeName) != null;
     }
@@ -0,0 +1,133 @@
+package com.easyhomes.manager;
+
+import com.easyhomes.storage.HomeStorage;
+import com.easyhomes.storage.LastSeen;
+import com.easyhomes.storage.PurgeResult;
+import com.easyhomes.util.MainThreadExecutor;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Tracks when players were last seen and periodically purges homes of long inactive players
+ * Last-seen times are buffered and written in batches; each purge run is capped to limit storage load
+ */
+public class InactivityManager {
+    private final Plugin plugin;
+    private final FileConfiguration config;
+    private final HomeStorage homeStorage;
+    private final Executor mainThreadExecutor;
+
+    // Seen but not yet written - these players are never purged
+    private final Map<UUID, LastSeen> pending = new ConcurrentHashMap<>();
+    private BukkitTask flushTask;
+    private BukkitTask purgeTask;
+
+    public InactivityManager(Plugin plugin, FileConfiguration config, HomeStorage homeStorage) {
+        this.plugin = plugin;
+        this.config = config;
+        this.homeStorage = homeStorage;
+        this.mainThreadExecutor = new MainThreadExecutor(plugin);
+    }
+
+    /**
+     * Start the last-seen flush timer and, if enabled, the purge timer
+     */
+    public void start() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            recordSeen(player);
+        }
+
+        long flushTicks = Math.max(1, config.getLong("inactive-purge.last-seen-flush-seconds", 60)) * 20L;
+        flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, flushTicks, flushTicks);
+
+        if (isPurgeEnabled()) {
+            long purgeTicks = Math.max(1, config.getLong("inactive-purge.interval-minutes", 60)) * 60L * 20L;
+            purgeTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::runScheduledPurge, purgeTicks, purgeTicks);
+        }
+    }
+
+    public boolean isPurgeEnabled() {
+        return config.getInt("inactive-purge.inactive-days", 0) > 0;
+    }
+
+    /**
+     * Remember that a player is online now (join / quit)
+     */
+    public void recordSeen(Player player) {
+        UUID playerId = player.getUniqueId();
+        pending.put(playerId, new LastSeen(playerId, player.getName(), System.currentTimeMillis()));
+    }
+
+    /**
+     * Write buffered last-seen times in one batch (blocking)
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<LastSeen> batch = new ArrayList<>(pending.values());
+        try {
+            homeStorage.getBackend().recordLastSeen(batch).join();
+            // Keep entries that were updated while we were writing
+            for (LastSeen seen : batch) {
+                pending.remove(seen.getPlayerId(), seen);
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to record last-seen times of " + batch.size() + " players", e);
+        }
+    }
+
+    /**
+     * Purge homes of players inactive longer than inactive-purge.inactive-days - completes on the main thread
+     * At most inactive-purge.max-players-per-run players are purged; completes with null if a purge is already running
+     */
+    public CompletableFuture<PurgeResult> purgeInactive() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(config.getInt("inactive-purge.inactive-days", 0));
+        int limit = Math.max(1, config.getInt("inactive-purge.max-players-per-run", 200));
+
+        return homeStorage.getBackend().listInactivePlayers(cutoff, limit).thenCompose(players -> {
+            players.removeIf(pending::containsKey);
+            if (players.isEmpty()) {
+                return CompletableFuture.completedFuture(new PurgeResult(0, 0, 0));
+            }
+            return homeStorage.purgePlayers(players);
+        }).whenCompleteAsync((result, error) -> { }, mainThreadExecutor);
+    }
+
+    private void runScheduledPurge() {
+        purgeInactive().whenComplete((result, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.WARNING, "Inactive player purge failed", error);
+            } else if (result != null && result.getHomes() > 0) {
+                plugin.getLogger().info("Purged " + result.getHomes() + " homes of " + result.getPlayers()
+                        + " inactive players (" + result.getDurationMillis() + "ms)");
+            }
+        });
+    }
+
+    /**
+     * Stop the timers and write remaining last-seen times (blocking)
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        if (purgeTask != null) {
+            purgeTask.cancel();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,235 @@
+package com.easyhomes.manager;
+
+import com.easyhomes.database.DatabaseManager;
+import com.easyhomes.storage.HomeStorage;
+import com.easyhomes.storage.StorageBackend;
+import com.easyhomes.storage.StorageFactory;
+import com.easyhomes.storage.StorageMigration;
+import com.easyhomes.util.DebugManager;
+import com.easyhomes.util.MessageUtil;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Runs storage migrations (/easyhomes migrate) on a background thread
+ * Only one migration can run at a time
+ */
+public class MigrationManager {
+    private final Plugin plugin;
+    private final FileConfiguration config;
+    private final HomeStorage homeStorage;
+    private final DebugManager debugManager;
+
+    private volatile Thread thread;
+    private volatile StorageMigration migration;
+    private volatile String from;
+    private volatile String to;
+    private volatile boolean cancelRequested;
+
+    public MigrationManager(Plugin plugin, FileConfiguration config, HomeStorage homeStorage, DebugManager debugManager) {
+        this.plugin = plugin;
+        this.config = config;
+        this.homeStorage = homeStorage;
+        this.debugManager = debugManager;
+    }
+
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Start migrating all homes from one storage type to another
+     * Progress and the result are reported to the sender
+     */
+    public synchronized boolean start(CommandSender sender, String from, String to) {
+        if (isRunning()) {
+            return false;
+        }
+
+        this.cancelRequested = false;
+        this.from = from.toUpperCase();
+        this.to = to.toUpperCase();
+        this.thread = new Thread(() -> run(sender, this.from, this.to), "EasyHomes-Migration");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        return true;
+    }
+
+    private void run(CommandSender sender, String from, String to) {
+        int threads = Math.max(1, config.getInt("storage.migration.threads", Runtime.getRuntime().availableProcessors()));
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread worker = new Thread(task, "EasyHomes-Migration-Worker-" + workerCount.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+
+        StorageFactory factory = new StorageFactory(plugin, config, debugManager);
+        List<StorageBackend> opened = new ArrayList<>();
+        DatabaseManager database = null;
+        BukkitTask progressTask = null;
+
+        try {
+            // MySQL needs its own pool unless it is the active storage
+            if ((from.equals("MYSQL") || to.equals("MYSQL")) && !homeStorage.getStorageType().equals("MYSQL")) {
+                database = new DatabaseManager(plugin, config);
+                database.connect();
+            }
+
+            StorageBackend source = open(factory, from, database, workers, opened);
+            StorageBackend target = open(factory, to, database, workers, opened);
+            if (source == null || target == null) {
+                send(sender, "migration-unavailable", "type", source == null ? from : to);
+                return;
+            }
+
+            File progressFile = new File(plugin.getDataFolder(),
+                    "migration-" + from.toLowerCase() + "-to-" + to.toLowerCase() + ".progress");
+            migration = new StorageMigration(plugin, source, target, progressFile.toPath(),
+                    config.getInt("storage.migration.batch-size", 500));
+            if (cancelRequested) {
+                migration.cancel();
+            }
+
+            long interval = Math.max(1, config.getLong("storage.migration.progress-interval-seconds", 5)) * 20L;
+            progressTask = plugin.getServer().getScheduler().runTaskTimer(plugin,
+                    () -> sender.sendMessage(getStatus()), interval, interval);
+
+            boolean complete = migration.run();
+
+            // Homes cached from the active storage may be older than what was just written
+            if (target == homeStorage.getBackend() && plugin.isEnabled()) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    homeStorage.clearCache();
+                    homeStorage.buildSpatialIndex();
+                });
+            }
+
+            if (migration.isCancelled()) {
+                send(sender, "migration-cancelled");
+            } else {
+                send(sender, complete ? "migration-finished" : "migration-incomplete",
+                        "players", migration.getDonePlayers(),
+                        "homes", migration.getMigratedHomes(),
+                        "failed", migration.getFailedPlayers(),
+                        "time", String.format("%.1f", migration.getElapsedSeconds()),
+                        "rate", String.format("%.0f", migration.getPlayersPerSecond()));
+            }
+            plugin.getLogger().info("Migration " + from + " -> " + to + " finished: " + migration.getDonePlayers()
+                    + " players, " + migration.getMigratedHomes() + " homes, " + migration.getFailedPlayers() + " failed");
+
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Migration " + from + " -> " + to + " failed", e);
+            send(sender, "migration-failed", "error", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+
+        } finally {
+            if (progressTask != null) {
+                progressTask.cancel();
+            }
+            for (StorageBackend backend : opened) {
+                backend.shutdown();
+            }
+            if (database != null) {
+                database.close();
+            }
+            workers.shutdown();
+            migration = null;
+            thread = null;
+        }
+    }
+
+    /**
+     * Reuse the active backend for its own type - a second instance would not see its pending writes
+     */
+    private StorageBackend open(StorageFactory factory, String type, DatabaseManager database,
+            ExecutorService workers, List<StorageBackend> opened) {
+        if (type.equals(homeStorage.getStorageType())) {
+            return homeStorage.getBackend();
+        }
+
+        StorageBackend backend = factory.create(type, database, workers);
+        if (backend != null) {
+            opened.add(backend);
+        }
+        return backend;
+    }
+
+    /**
+     * Current progress line
+     */
+    public String getStatus() {
+        StorageMigration current = migration;
+        if (current == null) {
+            return getMessage("migration-preparing", "from", from, "to", to);
+        }
+
+        long eta = current.getEtaSeconds();
+        return getMessage("migration-progress",
+                "from", from,
+                "to", to,
+                "done", current.getDonePlayers(),
+                "total", current.getTotalPlayers(),
+                "homes", current.getMigratedHomes(),
+                "rate", String.format("%.0f", current.getPlayersPerSecond()),
+                "eta", eta < 0 ? "?" : eta + "s");
+    }
+
+    /**
+     * Stop the running migration after the current batch
+     */
+    public boolean cancel() {
+        if (!isRunning()) {
+            return false;
+        }
+
+        cancelRequested = true;
+        StorageMigration current = migration;
+        if (current != null) {
+            current.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Cancel the running migration and wait for the current batch (blocking)
+     */
+    public void shutdown() {
+        Thread running = thread;
+        if (running == null) {
+            return;
+        }
+
+        cancel();
+        try {
+            running.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(CommandSender sender, String key, Object... replacements) {
+        String message = getMessage(key, replacements);
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        } else {
+            plugin.getLogger().info(message);
+        }
+    }
+
+    private String getMessage(String key, Object... replacements) {
+        String prefix = config.getString("messages.prefix", "&8[&6EasyHomes&8]&r ");
+        String message = config.getString("messages." + key, "&cWiadomość nie znaleziona: " + key);
+        return MessageUtil.format(prefix + message, replacements);
+    }
+}
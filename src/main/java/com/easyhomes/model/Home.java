@@ -14,6 +14,8 @@ public class Home {
     private final float yaw;
     private final float pitch;
     private final long createdAt;
+    // Row version in MySQL, 0 if unknown (other storage types)
+    private final long version;
 
     public Home(String name, Location location) {
         this.name = name;
@@ -24,9 +26,14 @@ public class Home {
         this.yaw = location.getYaw();
         this.pitch = location.getPitch();
         this.createdAt = System.currentTimeMillis();
+        this.version = 0;
     }
 
     public Home(String name, String worldName, double x, double y, double z, float yaw, float pitch, long createdAt) {
+        this(name, worldName, x, y, z, yaw, pitch, createdAt, 0);
+    }
+
+    public Home(String name, String worldName, double x, double y, double z, float yaw, float pitch, long createdAt, long version) {
         this.name = name;
         this.worldName = worldName;
         this.x = x;
@@ -35,6 +42,7 @@ public class Home {
         this.yaw = yaw;
         this.pitch = pitch;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     public String getName() {
@@ -53,10 +61,41 @@ public class Home {
         return worldName;
     }
 
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public float getYaw() {
+        return yaw;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
     public long getCreatedAt() {
         return createdAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Copy of this home with another row version
+     */
+    public Home withVersion(long version) {
+        return new Home(name, worldName, x, y, z, yaw, pitch, createdAt, version);
+    }
+
     // Serialize to ConfigurationSection
     public void save(ConfigurationSection section) {
         section.set("world", worldName);
@@ -0,0 +1,546 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import com.easyhomes.util.DebugManager;
+import org.bukkit.plugin.Plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of home records with a memory-mapped index
+ * Every change appends the player's full home set; old records are reclaimed by background compaction
+ */
+public class BinaryLogStorage implements StorageBackend {
+    private static final int RECORD_MAGIC = 0x45485243; // "EHRC"
+    // magic, payload length, crc, uuid msb, uuid lsb
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 4 + 8 + 8;
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+    private static final int SEGMENT_BITS = 40;
+    private static final long OFFSET_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final Plugin plugin;
+    private final DebugManager debugManager;
+    private final File folder;
+    private final Executor readExecutor;
+    private final long segmentSize;
+    private final double compactionThreshold;
+    private final boolean fsync;
+
+    // Sealed segments plus the active one (highest id) - segments are only modified on the writer thread
+    private final NavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ScheduledExecutorService writer;
+    private LogIndex index;
+    private Segment active;
+
+    // Metrics
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+
+    public BinaryLogStorage(Plugin plugin, DebugManager debugManager, Executor readExecutor,
+            long segmentSize, double compactionThreshold, boolean fsync) {
+        this.plugin = plugin;
+        this.debugManager = debugManager;
+        this.folder = new File(plugin.getDataFolder(), "homes-log");
+        this.readExecutor = readExecutor;
+        this.segmentSize = Math.max(1024 * 1024, segmentSize);
+        this.compactionThreshold = Math.min(0.95, Math.max(0.05, compactionThreshold));
+        this.fsync = fsync;
+        this.writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "EasyHomes-BinaryLog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open the segments and the index, rebuilding the index if it is missing or stale (blocking)
+     */
+    public boolean initialize(long compactionIntervalMinutes) {
+        try {
+            if (!folder.exists()) {
+                folder.mkdirs();
+            }
+
+            File[] files = folder.listFiles((dir, name) -> name.startsWith("segment-") && name.endsWith(".log"));
+            if (files != null) {
+                for (File file : files) {
+                    String name = file.getName();
+                    int id = Integer.parseInt(name.substring("segment-".length(), name.length() - ".log".length()));
+                    segments.put(id, new Segment(id, file.toPath()));
+                }
+            }
+
+            index = LogIndex.open(new File(folder, "index.dat").toPath());
+            if (index.needsRebuild() && !segments.isEmpty()) {
+                plugin.getLogger().warning("Home index is missing or was not closed cleanly - rebuilding from log segments...");
+                rebuildIndex();
+            }
+
+            // Live bytes per segment drive compaction
+            index.forEach((playerId, location, length) -> {
+                Segment segment = segments.get(segmentId(location));
+                if (segment != null) {
+                    segment.liveBytes.addAndGet(length);
+                }
+            });
+
+            active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+
+            long interval = Math.max(1, compactionIntervalMinutes);
+            writer.scheduleWithFixedDelay(this::compact, interval, interval, TimeUnit.MINUTES);
+
+            plugin.getLogger().info("Binary home log opened: " + index.size() + " players in " + segments.size() + " segments");
+            return true;
+
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to open binary home log! Falling back to YAML storage.", e);
+            closeFiles();
+            return false;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Binary log";
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Home>> loadHomes(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return read(playerId);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, readExecutor);
+    }
+
+    /**
+     * Read the player's latest record - one positional read, no parsing beyond the record itself
+     */
+    private Map<String, Home> read(UUID playerId) throws IOException {
+        // A segment can be deleted by compaction between the index lookup and the read - look up again
+        for (int attempt = 0; ; attempt++) {
+            LogIndex.Entry entry = index.get(playerId);
+            if (entry == null) {
+                return new HashMap<>();
+            }
+
+            Segment segment = segments.get(segmentId(entry.getLocation()));
+            try {
+                if (segment == null) {
+                    throw new ClosedChannelException();
+                }
+                ByteBuffer record = segment.read(offset(entry.getLocation()), entry.getLength());
+                return decode(playerId, record);
+            } catch (ClosedChannelException e) {
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> listPlayers() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<UUID> players = new ArrayList<>(index.size());
+            index.forEach((playerId, location, length) -> players.add(playerId));
+            return players;
+        }, readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> save(UUID playerId, HomeWrite write, HomeSnapshot snapshot) {
+        // The record holds the full home set - no need to read the previous one
+        return CompletableFuture.runAsync(() -> {
+            try {
+                append(playerId, snapshot.asMap());
+                sync();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    @Override
+    public CompletableFuture<Void> writeBatch(List<HomeWrite> writes) {
+        return CompletableFuture.runAsync(() -> {
+            Map<UUID, List<HomeWrite>> byPlayer = new LinkedHashMap<>();
+            for (HomeWrite write : writes) {
+                byPlayer.computeIfAbsent(write.getPlayerId(), id -> new ArrayList<>()).add(write);
+            }
+
+            try {
+                for (Map.Entry<UUID, List<HomeWrite>> entry : byPlayer.entrySet()) {
+                    Map<String, Home> homes = read(entry.getKey());
+                    for (HomeWrite write : entry.getValue()) {
+                        if (write.isDelete()) {
+                            homes.remove(write.getHomeName());
+                        } else {
+                            homes.put(write.getHomeName(), write.getHome());
+                        }
+                    }
+                    append(entry.getKey(), homes);
+                }
+                // One fsync for the whole batch
+                sync();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    /**
+     * Append a record and point the index at it (writer thread only)
+     */
+    private void append(UUID playerId, Map<String, Home> homes) throws IOException {
+        ByteBuffer record = encode(playerId, homes);
+        int length = record.remaining();
+
+        if (active.size + length > segmentSize) {
+            rollSegment();
+        }
+
+        long position = active.size;
+        active.write(record, position);
+        replaceLocation(playerId, location(active.id, position), length);
+        appends.incrementAndGet();
+    }
+
+    /**
+     * Update the index and the live byte counters
+     */
+    private void replaceLocation(UUID playerId, long location, int length) {
+        LogIndex.Entry previous = index.get(playerId);
+        if (previous != null) {
+            Segment old = segments.get(segmentId(previous.getLocation()));
+            if (old != null) {
+                old.liveBytes.addAndGet(-previous.getLength());
+            }
+        }
+
+        index.put(playerId, location, length);
+        segments.get(segmentId(location)).liveBytes.addAndGet(length);
+    }
+
+    private void sync() throws IOException {
+        if (fsync) {
+            active.channel.force(false);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        active.channel.force(false);
+        active = createSegment(active.id + 1);
+        debugManager.log("[BinaryLog] Rolled to segment " + active.id);
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment segment = new Segment(id, new File(folder, String.format("segment-%08d.log", id)).toPath());
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Compact now instead of waiting for the timer
+     */
+    CompletableFuture<Void> compactNow() {
+        return CompletableFuture.runAsync(this::compact, writer);
+    }
+
+    /**
+     * Copy live records out of sealed segments that are mostly garbage, then delete them (writer thread)
+     */
+    private void compact() {
+        List<Segment> candidates = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != active && segment.liveBytes.get() < segment.size * compactionThreshold) {
+                candidates.add(segment);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<UUID> players = new ArrayList<>();
+            index.forEach((playerId, location, length) -> {
+                Segment segment = segments.get(segmentId(location));
+                if (candidates.contains(segment)) {
+                    players.add(playerId);
+                }
+            });
+
+            for (UUID playerId : players) {
+                Map<String, Home> homes = read(playerId);
+                if (!homes.isEmpty() || olderSegmentSurvives(segmentId(index.get(playerId).getLocation()), candidates)) {
+                    // An empty record is a tombstone - an index rebuild would otherwise resurrect older records
+                    append(playerId, homes);
+                } else {
+                    // Players without homes need no record once no older segment can hold one
+                    index.remove(playerId);
+                }
+            }
+            active.channel.force(false);
+
+            long reclaimed = 0;
+            for (Segment segment : candidates) {
+                segments.remove(segment.id);
+                reclaimed += segment.size;
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            }
+
+            compactions.incrementAndGet();
+            reclaimedBytes.addAndGet(reclaimed);
+            debugManager.log("[BinaryLog] Compacted " + candidates.size() + " segments (" + players.size()
+                    + " players moved, " + reclaimed / 1024 + " KB reclaimed) in "
+                    + String.format("%.2f", (System.nanoTime() - start) / 1_000_000.0) + "ms");
+
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Home log compaction failed", e);
+        }
+    }
+
+    /**
+     * Whether a segment older than the given one is kept by this compaction
+     */
+    private boolean olderSegmentSurvives(int segmentId, List<Segment> candidates) {
+        for (Segment segment : segments.headMap(segmentId, false).values()) {
+            if (!candidates.contains(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-index every valid record in segment order - later records win
+     */
+    private void rebuildIndex() throws IOException {
+        index.clear();
+        long start = System.nanoTime();
+
+        for (Segment segment : segments.values()) {
+            long position = 0;
+
+            while (position + RECORD_HEADER_SIZE <= segment.size) {
+                ByteBuffer header = segment.read(position, RECORD_HEADER_SIZE);
+                int payloadLength = header.getInt(4);
+                int length = RECORD_HEADER_SIZE + payloadLength;
+                if (header.getInt(0) != RECORD_MAGIC || payloadLength < 0 || payloadLength > MAX_PAYLOAD_SIZE
+                        || position + length > segment.size) {
+                    break;
+                }
+
+                UUID playerId = new UUID(header.getLong(12), header.getLong(20));
+                ByteBuffer record = segment.read(position, length);
+                Map<String, Home> homes;
+                try {
+                    homes = decode(playerId, record);
+                } catch (IOException e) {
+                    break;
+                }
+
+                if (homes.isEmpty()) {
+                    index.remove(playerId);
+                } else {
+                    index.put(playerId, location(segment.id, position), length);
+                }
+                position += length;
+            }
+
+            if (position < segment.size) {
+                // Torn write from a crash - drop the tail so new records start at a valid boundary
+                plugin.getLogger().warning("Truncating " + (segment.size - position) + " bytes of invalid data in " + segment.path.getFileName());
+                segment.channel.truncate(position);
+                segment.size = position;
+            }
+        }
+
+        plugin.getLogger().info("Home index rebuilt: " + index.size() + " players in "
+                + String.format("%.2f", (System.nanoTime() - start) / 1_000_000.0) + "ms");
+    }
+
+    private static ByteBuffer encode(UUID playerId, Map<String, Home> homes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(RECORD_HEADER_SIZE + 64 * homes.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        // Header placeholder - filled in below
+        out.write(new byte[RECORD_HEADER_SIZE]);
+        out.writeShort(homes.size());
+        for (Home home : homes.values()) {
+            out.writeUTF(home.getName());
+            out.writeUTF(home.getWorldName());
+            out.writeDouble(home.getX());
+            out.writeDouble(home.getY());
+            out.writeDouble(home.getZ());
+            out.writeFloat(home.getYaw());
+            out.writeFloat(home.getPitch());
+            out.writeLong(home.getCreatedAt());
+        }
+
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        int payloadLength = record.capacity() - RECORD_HEADER_SIZE;
+        record.putInt(0, RECORD_MAGIC);
+        record.putInt(4, payloadLength);
+        record.putLong(12, playerId.getMostSignificantBits());
+        record.putLong(20, playerId.getLeastSignificantBits());
+        record.putInt(8, checksum(record));
+        return record;
+    }
+
+    private static Map<String, Home> decode(UUID playerId, ByteBuffer record) throws IOException {
+        if (record.getInt(0) != RECORD_MAGIC
+                || record.getLong(12) != playerId.getMostSignificantBits()
+                || record.getLong(20) != playerId.getLeastSignificantBits()
+                || record.getInt(8) != checksum(record)) {
+            throw new IOException("Corrupted home record for player " + playerId);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.array(),
+                RECORD_HEADER_SIZE, record.getInt(4)));
+        int count = in.readUnsignedShort();
+        Map<String, Home> homes = new HashMap<>(Math.max(4, count * 2));
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            Home home = new Home(name, in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readFloat(), in.readFloat(), in.readLong());
+            homes.put(name.toLowerCase(), home);
+        }
+        return homes;
+    }
+
+    /**
+     * CRC32 over the uuid and the payload
+     */
+    private static int checksum(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 12, record.capacity() - 12);
+        return (int) crc.getValue();
+    }
+
+    private static long location(int segmentId, long offset) {
+        return ((long) segmentId << SEGMENT_BITS) | offset;
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> SEGMENT_BITS);
+    }
+
+    private static long offset(long location) {
+        return location & OFFSET_MASK;
+    }
+
+    @Override
+    public String getStats() {
+        long total = 0;
+        long live = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size;
+            live += segment.liveBytes.get();
+        }
+        return String.format("Players: %d, Segments: %d, Size: %d KB, Live: %.1f%%, Appends: %d, Compactions: %d (%d KB reclaimed)",
+                index != null ? index.size() : 0, segments.size(), total / 1024, total > 0 ? live * 100.0 / total : 100.0,
+                appends.get(), compactions.get(), reclaimedBytes.get() / 1024);
+    }
+
+    @Override
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Binary home log writer did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeFiles();
+    }
+
+    private void closeFiles() {
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.force(false);
+                segment.channel.close();
+            }
+            // Marks the index clean - only after every record it points to is on disk
+            if (index != null) {
+                index.close();
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close binary home log", e);
+        }
+        segments.clear();
+        index = null;
+    }
+
+    /**
+     * One segment file of the log
+     */
+    private static class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final AtomicLong liveBytes = new AtomicLong();
+        // Written by the writer thread only
+        volatile long size;
+
+        Segment(int id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        ByteBuffer read(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of segment " + path.getFileName());
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        void write(ByteBuffer record, long position) throws IOException {
+            int length = record.remaining();
+            while (record.hasRemaining()) {
+                channel.write(record, position + (length - record.remaining()));
+            }
+            size = position + length;
+        }
+    }
+}
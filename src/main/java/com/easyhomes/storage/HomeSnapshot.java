@@ -0,0 +1,107 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, versioned view of a player's homes
+ * Reads never copy - mutations create a new snapshot (copy-on-write)
+ */
+public final class HomeSnapshot {
+    private static final HomeSnapshot EMPTY = new HomeSnapshot(Collections.emptyMap(), 0);
+
+    private final Map<String, Home> homes;
+    private final long version;
+
+    private HomeSnapshot(Map<String, Home> homes, long version) {
+        this.homes = Collections.unmodifiableMap(homes);
+        this.version = version;
+    }
+
+    /**
+     * Empty snapshot (player without homes)
+     */
+    public static HomeSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Create a snapshot from freshly loaded homes (keys must be lower-case home names)
+     */
+    public static HomeSnapshot of(Map<String, Home> homes) {
+        if (homes.isEmpty()) {
+            return EMPTY;
+        }
+        return new HomeSnapshot(new HashMap<>(homes), 0);
+    }
+
+    /**
+     * Get a home by name (case-insensitive)
+     */
+    public Home get(String homeName) {
+        return homes.get(homeName.toLowerCase());
+    }
+
+    /**
+     * Check if a home exists (case-insensitive)
+     */
+    public boolean contains(String homeName) {
+        return homes.containsKey(homeName.toLowerCase());
+    }
+
+    public int size() {
+        return homes.size();
+    }
+
+    public boolean isEmpty() {
+        return homes.isEmpty();
+    }
+
+    /**
+     * Lower-case home names (read-only view)
+     */
+    public Set<String> names() {
+        return homes.keySet();
+    }
+
+    /**
+     * Read-only map view of the homes - no copy
+     */
+    public Map<String, Home> asMap() {
+        return homes;
+    }
+
+    /**
+     * Version of this snapshot - incremented on every mutation
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * New snapshot with the home added or replaced
+     */
+    public HomeSnapshot with(Home home) {
+        Map<String, Home> copy = new HashMap<>(homes);
+        copy.put(home.getName().toLowerCase(), home);
+        return new HomeSnapshot(copy, version + 1);
+    }
+
+    /**
+     * New snapshot without the given home (same snapshot if it did not exist)
+     */
+    public HomeSnapshot without(String homeName) {
+        String key = homeName.toLowerCase();
+        if (!homes.containsKey(key)) {
+            return this;
+        }
+
+        Map<String, Home> copy = new HashMap<>(homes);
+        copy.remove(key);
+        return new HomeSnapshot(copy, version + 1);
+    }
+}
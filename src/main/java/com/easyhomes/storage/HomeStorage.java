@@ -1,250 +1,1098 @@
 package com.easyhomes.storage;
 
+import com.easyhomes.database.CircuitOpenException;
 import com.easyhomes.database.DatabaseManager;
-import com.easyhomes.database.MySQLStorage;
 import com.easyhomes.model.Home;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import org.bukkit.configuration.ConfigurationSection;
+import com.easyhomes.util.DebugManager;
+import com.easyhomes.util.MainThreadExecutor;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 public class HomeStorage {
+    private static final int PROVISIONAL_RELOAD_ATTEMPTS = 3;
+    private static final long PROVISIONAL_RETRY_TICKS = 100;
+    // Preloaded players who have not joined by then disconnected during login - their homes are unpinned
+    private static final long PRELOAD_JOIN_TIMEOUT_TICKS = 15 * 20;
+
     private final Plugin plugin;
     private final FileConfiguration config;
-    private final File homesFolder;
-    private final Cache<UUID, Map<String, Home>> cache;
+    // Offline players - size bounded (W-TinyLFU), refreshed ahead of expiry
+    private final LoadingCache<UUID, HomeSnapshot> offlineCache;
+    private final boolean offlineCacheEnabled;
+    // Homes of online players - pinned so they never expire while the player is connected
+    private final Map<UUID, HomeSnapshot> onlineHomes;
     private final DatabaseManager databaseManager;
-    private final MySQLStorage mysqlStorage;
-    private final boolean useMysql;
+    private final StorageBackend backend;
+    private final String storageType;
+    // Used for reads when the primary backend fails (null when the primary is YAML)
+    private final YamlStorage fallback;
+    private final WriteBehindQueue writeBehind;
+    // Writes that could not reach the backend, replayed once it is available (null when disabled)
+    private final WriteJournal journal;
+    private BukkitTask journalTask;
+    private final Executor mainThreadExecutor;
+    private final Executor asyncExecutor;
+    // Loads in progress - concurrent misses for the same player share one backend query
+    private final Map<UUID, CompletableFuture<Map<String, Home>>> inFlightLoads = new ConcurrentHashMap<>();
+    private final AtomicLong backendLoads = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+    private final AtomicLong remoteRefreshes = new AtomicLong();
+    // Background refreshes of offline entries (refresh-seconds) - Caffeine's load count also includes misses
+    private final AtomicLong refreshes = new AtomicLong();
+    // All homes by world and position (null when disabled or the build failed)
+    private volatile SpatialIndex spatialIndex;
+    private final AtomicBoolean purgeRunning = new AtomicBoolean();
+    private final AtomicBoolean warmUpRunning = new AtomicBoolean();
+    // Players whose cached homes came from the YAML fallback or a failed load - reloaded once storage recovers
+    private final Set<UUID> provisional = ConcurrentHashMap.newKeySet();
+    // Latest pre-login preload per player - a timeout only unpins the preload it was started for
+    private final Map<UUID, Object> preloads = new ConcurrentHashMap<>();
+    // Longest a blocking load (player login) waits for storage
+    private final long loadTimeoutMillis;
 
-    public HomeStorage(Plugin plugin, FileConfiguration config, DatabaseManager databaseManager) {
+    public HomeStorage(Plugin plugin, FileConfiguration config, DatabaseManager databaseManager, DebugManager debugManager) {
         this.plugin = plugin;
         this.config = config;
         this.databaseManager = databaseManager;
-        this.homesFolder = new File(plugin.getDataFolder(), "homes");
-        this.useMysql = databaseManager != null && databaseManager.isEnabled();
-        
-        if (!homesFolder.exists()) {
-            homesFolder.mkdirs();
-        }
+        this.loadTimeoutMillis = Math.max(1000, config.getLong("storage.load-timeout-ms", 10000));
 
-        // Initialize Guava cache with TTL and max size
+        // Offline tier: TTL and max size apply to players that are not online
         int cacheTTL = config.getInt("cache.ttl-seconds", 300); // 5 minutes default
         int cacheMaxSize = config.getInt("cache.max-size", 10000);
+        int cacheRefresh = config.getInt("cache.refresh-seconds", 120);
+        this.offlineCacheEnabled = config.getBoolean("cache.enabled", true);
+
+        Caffeine<Object, Object> cacheBuilder = Caffeine.newBuilder()
+                .expireAfterAccess(Math.max(1, cacheTTL), TimeUnit.SECONDS)
+                .maximumSize(offlineCacheEnabled ? Math.max(0, cacheMaxSize) : 0)
+                .recordStats();
+        if (cacheRefresh > 0 && cacheRefresh < cacheTTL) {
+            cacheBuilder.refreshAfterWrite(cacheRefresh, TimeUnit.SECONDS);
+        }
+        this.offlineCache = cacheBuilder.build(new CacheLoader<UUID, HomeSnapshot>() {
+            @Override
+            public HomeSnapshot load(UUID playerId) {
+                return HomeSnapshot.of(loadFromBackend(playerId));
+            }
+
+            @Override
+            public CompletableFuture<HomeSnapshot> asyncReload(UUID playerId, HomeSnapshot oldValue, Executor executor) {
+                // No YAML fallback here - on failure the cached snapshot is kept
+                return backend.loadHomes(playerId).thenApply(homes -> {
+                    refreshes.incrementAndGet();
+                    return HomeSnapshot.of(withPendingWrites(playerId, homes));
+                });
+            }
+        });
+        this.onlineHomes = new ConcurrentHashMap<>();
+        this.mainThreadExecutor = new MainThreadExecutor(plugin);
+        this.asyncExecutor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+
+        // Select the storage backend - YAML if the configured one is unavailable
+        StorageFactory factory = new StorageFactory(plugin, config, debugManager);
+        String type = config.getString("storage.type", "YAML").toUpperCase();
+        StorageBackend configured = type.equals("YAML") ? null : factory.create(type, databaseManager, asyncExecutor);
+        YamlStorage yamlStorage = (YamlStorage) factory.create("YAML", null, asyncExecutor);
+        this.backend = configured != null ? configured : yamlStorage;
+        this.storageType = configured != null ? type : "YAML";
+        this.fallback = configured != null ? yamlStorage : null;
         
-        this.cache = CacheBuilder.newBuilder()
-                .expireAfterAccess(cacheTTL, TimeUnit.SECONDS)
-                .maximumSize(cacheMaxSize)
-                .build();
+        // Journal writes the backend refuses so they survive outages and restarts
+        int maxBatchSize = config.getInt("storage.write-behind.max-batch-size", 500);
+        this.journal = configured != null && config.getBoolean("storage.journal.enabled", true)
+                ? openJournal(maxBatchSize) : null;
+        if (journal != null) {
+            long replayInterval = Math.max(1, config.getLong("storage.journal.replay-interval-ticks", 100));
+            this.journalTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, journal::replay, 1, replayInterval);
+        }
 
-        // Initialize MySQL storage if available
-        this.mysqlStorage = useMysql ? new MySQLStorage(plugin, databaseManager) : null;
+        // Buffer writes and flush them in batches
+        if (backend.supportsWriteBehind() && config.getBoolean("storage.write-behind.enabled", true)) {
+            long flushInterval = config.getLong("storage.write-behind.flush-interval-ticks", 40);
+            this.writeBehind = new WriteBehindQueue(plugin, this::writeBatch, flushInterval, maxBatchSize);
+        } else {
+            this.writeBehind = null;
+        }
         
-        if (useMysql) {
-            plugin.getLogger().info("Storage: MySQL (with cache TTL: " + cacheTTL + "s, max: " + cacheMaxSize + ")");
+        if (configured != null) {
+            plugin.getLogger().info("Storage: " + backend.getName() + " (with cache TTL: " + cacheTTL + "s, max: " + cacheMaxSize + ")");
+        } else if (config.getString("storage.type", "YAML").equalsIgnoreCase("YAML")) {
+            plugin.getLogger().info("Storage: YAML (with cache TTL: " + cacheTTL + "s, max: " + cacheMaxSize + ")");
         } else {
-            plugin.getLogger().warning("Storage: YAML fallback mode (MySQL not configured or unavailable)");
+            plugin.getLogger().warning("Storage: YAML fallback mode (configured storage not available)");
+        }
+
+        backend.watchRemoteChanges(this::onRemoteChanges);
+        // MySQL may still be connecting in the background
+        whenReady().thenRun(this::buildSpatialIndex);
+        if (databaseManager != null) {
+            databaseManager.onAvailable(this::reloadProvisional);
+        }
+    }
+
+    /**
+     * Check if storage has finished starting - false while MySQL is still connecting in the background
+     */
+    public boolean isReady() {
+        return databaseManager == null || !databaseManager.isEnabled() || databaseManager.isReady();
+    }
+
+    /**
+     * Completes once storage has finished starting (immediately if it already has)
+     */
+    public CompletableFuture<Void> whenReady() {
+        return isReady() ? CompletableFuture.completedFuture(null) : databaseManager.whenReady();
+    }
+
+    /**
+     * Open the write journal - writes are not journaled if it cannot be opened
+     */
+    private WriteJournal openJournal(int maxBatchSize) {
+        WriteJournal writeJournal = new WriteJournal(plugin, new File(plugin.getDataFolder(), "journal/writes.journal"),
+                backend::writeBatch, this::isBackendAvailable, maxBatchSize);
+        try {
+            writeJournal.open();
+            return writeJournal;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to open the write journal - writes during storage outages may be lost", e);
+            return null;
+        }
+    }
+
+    /**
+     * Check if the backend is worth writing to - false while the MySQL circuit breaker is open
+     */
+    public boolean isBackendAvailable() {
+        return databaseManager == null || !databaseManager.isEnabled() || databaseManager.isAvailable();
+    }
+
+    /**
+     * Write a batch to the backend; writes it refuses are journaled instead of failing
+     */
+    private CompletableFuture<Void> writeBatch(List<HomeWrite> writes) {
+        return journaled(writes, () -> backend.writeBatch(writes));
+    }
+
+    /**
+     * Run a backend write, journaling the writes if it fails
+     * While older writes wait in the journal, new ones are appended behind them so they cannot overtake them
+     */
+    private CompletableFuture<Void> journaled(List<HomeWrite> writes, Supplier<CompletableFuture<Void>> write) {
+        if (journal == null) {
+            return write.get();
+        }
+        if (!journal.isEmpty()) {
+            return CompletableFuture.runAsync(() -> appendToJournal(writes, null), asyncExecutor);
+        }
+
+        return write.get().handle((ignored, error) -> {
+            if (error != null) {
+                appendToJournal(writes, error);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Append writes to the journal (blocking) - fails with the cause if the journal cannot be written
+     */
+    private void appendToJournal(List<HomeWrite> writes, Throwable cause) {
+        try {
+            journal.append(writes);
+        } catch (IOException e) {
+            if (cause != null) {
+                e.addSuppressed(cause);
+            }
+            throw new CompletionException(e);
+        }
+
+        // An open circuit breaker was reported once already
+        if (cause != null && !CircuitOpenException.isCause(cause)) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write " + writes.size() + " home writes to "
+                    + backend.getName() + " - journaled for replay", cause);
+        }
+    }
+
+    /**
+     * Reload players whose stored homes differ from the cache - changed by another server or after a
+     * write conflict (called on a storage thread)
+     * Players not held in memory need nothing - they are loaded fresh on next access
+     */
+    private void onRemoteChanges(Set<UUID> players) {
+        for (UUID playerId : players) {
+            refreshRemote(playerId);
+        }
+    }
+
+    private void refreshRemote(UUID playerId) {
+        HomeSnapshot before = getCachedSnapshot(playerId);
+        if (before == null) {
+            reindexRemote(playerId);
+            return;
+        }
+
+        // No YAML fallback - the cached snapshot is better than fallback data
+        backend.loadHomes(playerId).thenApply(homes -> withPendingWrites(playerId, homes))
+                .whenComplete((homes, error) -> mainThreadExecutor.execute(() -> {
+                    HomeSnapshot current = getCachedSnapshot(playerId);
+                    if (current == null) {
+                        return;
+                    }
+
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to reload changed homes of " + playerId, error);
+                        // Offline entries are reloaded on next access rather than served stale
+                        if (!onlineHomes.containsKey(playerId)) {
+                            offlineCache.invalidate(playerId);
+                        }
+                        return;
+                    }
+
+                    if (current != before) {
+                        // Changed on this server while loading - the loaded homes may miss that write
+                        refreshRemote(playerId);
+                        return;
+                    }
+
+                    HomeSnapshot updated = HomeSnapshot.of(homes);
+                    putCached(playerId, updated);
+                    Set<String> names = new HashSet<>(current.names());
+                    names.addAll(updated.names());
+                    for (String homeName : names) {
+                        indexChange(playerId, current.get(homeName), updated.get(homeName));
+                    }
+                    remoteRefreshes.incrementAndGet();
+                }));
+    }
+
+    /**
+     * Re-index a changed player that is not cached here - the index holds homes of every player
+     */
+    private void reindexRemote(UUID playerId) {
+        if (spatialIndex == null) {
+            return;
+        }
+
+        backend.loadHomes(playerId).thenApply(homes -> withPendingWrites(playerId, homes))
+                .whenComplete((homes, error) -> mainThreadExecutor.execute(() -> {
+                    SpatialIndex index = spatialIndex;
+                    if (index == null) {
+                        return;
+                    }
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to re-index changed homes of " + playerId, error);
+                        return;
+                    }
+                    // Cached meanwhile - that snapshot is at least as new as this load
+                    HomeSnapshot cached = getCachedSnapshot(playerId);
+                    index.replacePlayer(playerId, cached != null ? cached.asMap().values() : homes.values());
+                    remoteRefreshes.incrementAndGet();
+                }));
+    }
+
+    /**
+     * (Re)build the spatial index from storage in the background
+     * Queries use the storage backend until the build completes
+     */
+    public void buildSpatialIndex() {
+        if (!config.getBoolean("spatial-index.enabled", true)) {
+            spatialIndex = null;
+            return;
         }
+
+        SpatialIndex index = new SpatialIndex(config.getInt("spatial-index.cell-size", 256));
+        index.beginBuild();
+        spatialIndex = index;
+
+        long start = System.currentTimeMillis();
+        backend.forEachHome(index::addLoaded).whenComplete((ignored, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.WARNING, "Failed to build spatial index from " + backend.getName(), error);
+                if (spatialIndex == index) {
+                    spatialIndex = null;
+                }
+                return;
+            }
+
+            index.finishBuild();
+            plugin.getLogger().info("Spatial index built: " + index.size() + " homes in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        });
     }
 
     /**
-     * Get player homes file
+     * Homes of all players within the radius, nearest first - completes on the main thread
+     * Uses the in-memory index when it is ready, otherwise a storage area query
      */
-    private File getPlayerFile(UUID playerId) {
-        return new File(homesFolder, playerId.toString() + ".yml");
+    public CompletableFuture<List<OwnedHome>> findHomesNear(String world, double x, double z, double radius) {
+        SpatialIndex index = spatialIndex;
+        if (index != null && index.isReady()) {
+            return CompletableFuture.completedFuture(index.findNear(world, x, z, radius));
+        }
+
+        return onMainThread(backend.findHomesInArea(world, x - radius, z - radius, x + radius, z + radius)
+                .thenApply(homes -> SpatialIndex.filterByRadius(homes, x, z, radius)));
+    }
+
+    /**
+     * Homes of all players inside a rectangle of a world - completes on the main thread
+     */
+    public CompletableFuture<List<OwnedHome>> findHomesInArea(String world, double minX, double minZ, double maxX, double maxZ) {
+        SpatialIndex index = spatialIndex;
+        if (index != null && index.isReady()) {
+            return CompletableFuture.completedFuture(index.findInArea(world, minX, minZ, maxX, maxZ));
+        }
+
+        return onMainThread(backend.findHomesInArea(world, minX, minZ, maxX, maxZ));
+    }
+
+    /**
+     * Keep the spatial index in sync with a change - either home may be null
+     */
+    private void indexChange(UUID playerId, Home oldHome, Home newHome) {
+        SpatialIndex index = spatialIndex;
+        if (index != null && (oldHome != null || newHome != null)) {
+            index.update(playerId, oldHome, newHome);
+        }
     }
 
     /**
-     * Load player homes from cache or storage
+     * Load player snapshot from cache or storage
+     * Blocking on cache miss
+     * @deprecated stalls the calling thread on storage; use {@link #getSnapshotAsync(UUID)}
      */
-    public Map<String, Home> loadHomes(UUID playerId) {
-        // Try cache first
-        Map<String, Home> cached = cache.getIfPresent(playerId);
+    @Deprecated
+    public HomeSnapshot loadHomes(UUID playerId) {
+        // Online players and cached players are resident
+        HomeSnapshot cached = getCachedSnapshot(playerId);
         if (cached != null) {
-            return new HashMap<>(cached);
+            return cached;
         }
 
         // Load from storage
-        Map<String, Home> homes;
+        HomeSnapshot snapshot = HomeSnapshot.of(loadFromBackend(playerId));
+        putCached(playerId, snapshot);
         
-        if (useMysql) {
-            homes = loadFromMySQL(playerId);
-        } else {
-            homes = loadFromYAML(playerId);
+        return snapshot;
+    }
+
+    /**
+     * Get the cached snapshot without touching storage, or null if the player is not loaded
+     */
+    public HomeSnapshot getCachedSnapshot(UUID playerId) {
+        // Online players are always resident
+        HomeSnapshot snapshot = onlineHomes.get(playerId);
+        if (snapshot == null) {
+            snapshot = offlineCache.getIfPresent(playerId);
         }
+        return snapshot;
+    }
 
-        // Update cache
-        cache.put(playerId, new HashMap<>(homes));
-        
-        return homes;
+    /**
+     * Get cached homes without touching storage, or null if the player is not loaded
+     */
+    public Map<String, Home> getCachedHomes(UUID playerId) {
+        HomeSnapshot snapshot = getCachedSnapshot(playerId);
+        return snapshot != null ? snapshot.asMap() : null;
     }
 
     /**
-     * Load homes from MySQL
+     * Load player homes without blocking - completes on the main thread
      */
-    private Map<String, Home> loadFromMySQL(UUID playerId) {
-        try {
-            return mysqlStorage.loadHomes(playerId).get();
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.WARNING, "Failed to load homes from MySQL, falling back to YAML", e);
-            return loadFromYAML(playerId);
+    public CompletableFuture<Map<String, Home>> getHomesAsync(UUID playerId) {
+        return getSnapshotAsync(playerId).thenApply(HomeSnapshot::asMap);
+    }
+
+    /**
+     * Load player snapshot without blocking - completes on the main thread
+     */
+    public CompletableFuture<HomeSnapshot> getSnapshotAsync(UUID playerId) {
+        HomeSnapshot cached = getCachedSnapshot(playerId);
+        if (cached != null) {
+            return onMainThread(CompletableFuture.completedFuture(cached));
         }
+
+        return onMainThread(loadShared(playerId)).thenApply(homes -> {
+            // A write may have populated the cache while we were loading - it wins
+            HomeSnapshot current = getCachedSnapshot(playerId);
+            if (current != null) {
+                return current;
+            }
+            HomeSnapshot snapshot = HomeSnapshot.of(homes);
+            putCached(playerId, snapshot);
+            return snapshot;
+        });
     }
 
     /**
-     * Load homes from YAML file
+     * Get a specific home without blocking - completes on the main thread
      */
-    private Map<String, Home> loadFromYAML(UUID playerId) {
-        Map<String, Home> homes = new HashMap<>();
-        File file = getPlayerFile(playerId);
+    public CompletableFuture<Home> getHomeAsync(UUID playerId, String homeName) {
+        return getSnapshotAsync(playerId).thenApply(snapshot -> snapshot.get(homeName));
+    }
 
-        if (!file.exists()) {
-            return homes;
+    /**
+     * Add or update a home without blocking - completes on the main thread once persisted (or queued for write-behind)
+     */
+    public CompletableFuture<Void> setHomeAsync(UUID playerId, Home home) {
+        return getSnapshotAsync(playerId).thenCompose(snapshot -> {
+            // Re-read: the cache may have moved on since the snapshot was handed out
+            HomeSnapshot current = currentOr(playerId, snapshot);
+            HomeWrite write = versionedSave(playerId, home, current.get(home.getName()));
+            HomeSnapshot updated = current.with(write.getHome());
+            putCached(playerId, updated);
+            indexChange(playerId, current.get(home.getName()), write.getHome());
+
+            return persist(playerId, write, updated);
+        });
+    }
+
+    /**
+     * Remove a home without blocking - completes on the main thread once persisted (or queued for write-behind)
+     */
+    public CompletableFuture<Void> deleteHomeAsync(UUID playerId, String homeName) {
+        return getSnapshotAsync(playerId).thenCompose(snapshot -> {
+            HomeSnapshot current = currentOr(playerId, snapshot);
+            HomeSnapshot updated = current.without(homeName);
+            putCached(playerId, updated);
+            indexChange(playerId, current.get(homeName), null);
+
+            return persist(playerId, versionedDelete(playerId, homeName, current.get(homeName)), updated);
+        });
+    }
+
+    /**
+     * Save that only applies if storage still has the cached version of the home it replaces
+     * The cached copy carries the version the home will have once stored. Provisional homes (YAML fallback)
+     * carry no real versions - their writes overwrite whatever is stored until the player is reloaded.
+     */
+    private HomeWrite versionedSave(UUID playerId, Home home, Home previous) {
+        long expected = previous != null ? previous.getVersion() : HomeWrite.NO_VERSION;
+        if (provisional.contains(playerId)) {
+            return HomeWrite.save(playerId, home.withVersion(expected + 1));
+        }
+        return HomeWrite.save(playerId, home.withVersion(expected + 1), expected);
+    }
+
+    /**
+     * Delete that only applies if storage still has the cached version of the home (any version if provisional)
+     */
+    private HomeWrite versionedDelete(UUID playerId, String homeName, Home previous) {
+        if (previous == null || provisional.contains(playerId)) {
+            return HomeWrite.delete(playerId, homeName);
+        }
+        return HomeWrite.delete(playerId, homeName, previous.getVersion());
+    }
+
+    /**
+     * Hand a change to the write-behind queue, or to the backend directly
+     */
+    private CompletableFuture<Void> persist(UUID playerId, HomeWrite write, HomeSnapshot snapshot) {
+        if (writeBehind != null) {
+            writeBehind.enqueue(write);
+            return CompletableFuture.completedFuture(null);
         }
+        return onMainThread(journaled(Collections.singletonList(write), () -> backend.save(playerId, write, snapshot)));
+    }
 
-        YamlConfiguration yamlConfig = YamlConfiguration.loadConfiguration(file);
-        ConfigurationSection homesSection = yamlConfig.getConfigurationSection("homes");
+    /**
+     * Latest cached snapshot, or the given one if the player is no longer cached
+     */
+    private HomeSnapshot currentOr(UUID playerId, HomeSnapshot fallback) {
+        HomeSnapshot current = getCachedSnapshot(playerId);
+        return current != null ? current : fallback;
+    }
 
-        if (homesSection != null) {
-            for (String homeName : homesSection.getKeys(false)) {
-                ConfigurationSection homeSection = homesSection.getConfigurationSection(homeName);
-                if (homeSection != null) {
-                    try {
-                        Home home = Home.load(homeName, homeSection);
-                        homes.put(homeName.toLowerCase(), home);
-                    } catch (Exception e) {
-                        plugin.getLogger().log(Level.WARNING, "Failed to load home '" + homeName + "' for player " + playerId, e);
+    /**
+     * Complete a future on the main thread, including exceptional completion
+     */
+    private <T> CompletableFuture<T> onMainThread(CompletableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, error) -> mainThreadExecutor.execute(() -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Load the homes of many players with a few bulk queries and cache them - online players are pinned
+     * Batches run in parallel on the storage executor. Players whose cached homes change while the warm-up
+     * runs keep the newer data; players of a failed batch are simply loaded on first use.
+     * Progress (players done, total) is reported on the main thread. Call on the main thread.
+     * Completes on the main thread, with null if a warm-up is already running
+     */
+    public CompletableFuture<WarmUpResult> warmUp(List<UUID> players, BiConsumer<Integer, Integer> progress) {
+        if (!warmUpRunning.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, config.getInt("cache.warm-up.batch-size", 200));
+        int[] counts = new int[3]; // done, homes, failed - only touched on the main thread
+
+        // What is cached now - anything else by the time a batch arrives is newer than the batch
+        Map<UUID, HomeSnapshot> before = new HashMap<>();
+        for (UUID playerId : players) {
+            before.put(playerId, getCachedSnapshot(playerId));
+        }
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < players.size(); from += batchSize) {
+            List<UUID> batch = new ArrayList<>(players.subList(from, Math.min(players.size(), from + batchSize)));
+            batches.add(backend.loadHomes(batch).handleAsync((loaded, error) -> {
+                if (error != null) {
+                    counts[2] += batch.size();
+                    if (!CircuitOpenException.isCause(error)) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to warm up homes of " + batch.size() + " players", error);
                     }
+                } else {
+                    counts[1] += installWarmedUp(loaded, before);
                 }
-            }
+                counts[0] += batch.size();
+                progress.accept(counts[0], players.size());
+                return null;
+            }, mainThreadExecutor));
         }
 
+        CompletableFuture<WarmUpResult> result = CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> new WarmUpResult(counts[0] - counts[2], counts[1], counts[2],
+                        System.currentTimeMillis() - start));
+        result.whenComplete((ignored, error) -> warmUpRunning.set(false));
+        return result;
+    }
+
+    /**
+     * Cache a warmed-up batch unless a player's cached homes changed meanwhile (main thread)
+     * Returns the number of cached homes
+     */
+    private int installWarmedUp(Map<UUID, Map<String, Home>> loaded, Map<UUID, HomeSnapshot> before) {
+        int homes = 0;
+        for (Map.Entry<UUID, Map<String, Home>> entry : loaded.entrySet()) {
+            UUID playerId = entry.getKey();
+            if (getCachedSnapshot(playerId) != before.get(playerId)) {
+                continue;
+            }
+
+            HomeSnapshot snapshot = HomeSnapshot.of(withPendingWrites(playerId, entry.getValue()));
+            if (plugin.getServer().getPlayer(playerId) != null) {
+                onlineHomes.put(playerId, snapshot);
+                offlineCache.invalidate(playerId);
+            } else if (offlineCacheEnabled) {
+                offlineCache.put(playerId, snapshot);
+            }
+            provisional.remove(playerId);
+            homes += snapshot.size();
+        }
         return homes;
     }
 
     /**
-     * Save player homes to storage (async)
+     * Reload players whose cached homes are provisional (called on a storage thread once MySQL is usable)
      */
-    public void saveHomes(UUID playerId, Map<String, Home> homes) {
-        // Update cache immediately
-        cache.put(playerId, new HashMap<>(homes));
+    private void reloadProvisional() {
+        reloadProvisional(PROVISIONAL_RELOAD_ATTEMPTS);
+    }
 
-        // Save async to prevent lag
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            if (useMysql) {
-                saveToMySQL(playerId, homes);
-            } else {
-                saveToYAML(playerId, homes);
+    private void reloadProvisional(int attemptsLeft) {
+        if (provisional.isEmpty() || attemptsLeft <= 0 || !plugin.isEnabled()) {
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            List<UUID> players = new ArrayList<>();
+            for (UUID playerId : provisional) {
+                if (getCachedSnapshot(playerId) != null) {
+                    players.add(playerId);
+                } else {
+                    // Not cached any more - the next access loads it fresh
+                    provisional.remove(playerId);
+                }
             }
+            if (players.isEmpty()) {
+                return;
+            }
+
+            warmUp(players, (done, total) -> { }).thenAccept(result -> {
+                if (result != null) {
+                    plugin.getLogger().info("Reloaded homes of " + result.getPlayers() + " players cached during the storage outage");
+                }
+                // Another warm-up was running, or players changed meanwhile - try again shortly
+                if (result == null || !provisional.isEmpty()) {
+                    plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin,
+                            () -> reloadProvisional(attemptsLeft - 1), PROVISIONAL_RETRY_TICKS);
+                }
+            });
         });
     }
 
     /**
-     * Save homes to MySQL
+     * Load player homes and pin them in memory until the player is unloaded.
+     * Blocking - must be called off the main thread (e.g. from AsyncPlayerPreLoginEvent).
+     * Homes served from the fallback are pinned as provisional and reloaded once storage recovers.
+     * If the player is not online shortly afterwards (disconnected during login) the homes are unpinned again.
+     */
+    public void preloadPlayer(UUID playerId) {
+        // Promote from the offline tier if the player was seen recently
+        HomeSnapshot snapshot = offlineCache.getIfPresent(playerId);
+
+        if (snapshot == null) {
+            snapshot = HomeSnapshot.of(loadFromBackend(playerId));
+        }
+
+        onlineHomes.put(playerId, snapshot);
+        offlineCache.invalidate(playerId);
+        expireUnlessJoined(playerId);
+    }
+
+    /**
+     * Unpin a preload if the player is not online when the join timeout passes
      */
-    private void saveToMySQL(UUID playerId, Map<String, Home> homes) {
-        // This method is called for each individual home, so we just save one
-        // The actual saving is handled by setHome/deleteHome methods
+    private void expireUnlessJoined(UUID playerId) {
+        Object preload = new Object();
+        preloads.put(playerId, preload);
+        if (!plugin.isEnabled()) {
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (preloads.remove(playerId, preload) && plugin.getServer().getPlayer(playerId) == null) {
+                unloadPlayer(playerId);
+            }
+        }, PRELOAD_JOIN_TIMEOUT_TICKS);
     }
 
     /**
-     * Save homes to YAML file
+     * Start loading player homes without blocking and pin them once loaded, if the player is still online
      */
-    private void saveToYAML(UUID playerId, Map<String, Home> homes) {
-        File file = getPlayerFile(playerId);
-        YamlConfiguration yamlConfig = new YamlConfiguration();
+    public void preloadPlayerAsync(UUID playerId) {
+        getSnapshotAsync(playerId).thenAccept(snapshot -> {
+            if (plugin.getServer().getPlayer(playerId) != null && onlineHomes.putIfAbsent(playerId, snapshot) == null) {
+                offlineCache.invalidate(playerId);
+            }
+        });
+    }
 
-        ConfigurationSection homesSection = yamlConfig.createSection("homes");
-        for (Map.Entry<String, Home> entry : homes.entrySet()) {
-            ConfigurationSection homeSection = homesSection.createSection(entry.getKey());
-            entry.getValue().save(homeSection);
+    /**
+     * Check if player homes are pinned in memory
+     */
+    public boolean isLoaded(UUID playerId) {
+        return onlineHomes.containsKey(playerId);
+    }
+
+    /**
+     * Store homes in the pinned map for online players, otherwise in the offline tier
+     */
+    private void putCached(UUID playerId, HomeSnapshot snapshot) {
+        if (onlineHomes.replace(playerId, snapshot) == null && offlineCacheEnabled) {
+            offlineCache.put(playerId, snapshot);
         }
+    }
 
+    /**
+     * Load homes from the backend (blocking)
+     */
+    private Map<String, Home> loadFromBackend(UUID playerId) {
         try {
-            yamlConfig.save(file);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.WARNING, "Failed to save homes for player " + playerId, e);
+            return loadShared(playerId).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyMap();
+        } catch (ExecutionException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load homes for player " + playerId, e.getCause());
+            provisional.add(playerId);
+            return Collections.emptyMap();
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Loading homes of player " + playerId + " took longer than " + loadTimeoutMillis + "ms");
+            provisional.add(playerId);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Load homes, joining a load of the same player that is already in flight
+     */
+    private CompletableFuture<Map<String, Home>> loadShared(UUID playerId) {
+        CompletableFuture<Map<String, Home>> created = new CompletableFuture<>();
+        CompletableFuture<Map<String, Home>> existing = inFlightLoads.putIfAbsent(playerId, created);
+        if (existing != null) {
+            sharedLoads.incrementAndGet();
+            return existing;
+        }
+
+        backendLoads.incrementAndGet();
+        loadFromBackendAsync(playerId).whenComplete((homes, error) -> {
+            // Unregister first - callers arriving after this start a fresh load
+            inFlightLoads.remove(playerId, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(homes);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Load homes from the backend, falling back to YAML if the backend fails
+     */
+    private CompletableFuture<Map<String, Home>> loadFromBackendAsync(UUID playerId) {
+        CompletableFuture<Map<String, Home>> load = backend.loadHomes(playerId).thenApply(homes -> {
+            // A cached provisional snapshot wins over this load - it stays provisional until reloaded
+            if (getCachedSnapshot(playerId) == null) {
+                provisional.remove(playerId);
+            }
+            return homes;
+        });
+        if (fallback == null) {
+            return load.thenApply(homes -> withPendingWrites(playerId, homes));
+        }
+
+        // Pending writes apply to fallback reads too - they are not in YAML
+        return load.exceptionally(e -> {
+            provisional.add(playerId);
+            // While the circuit breaker is open every load falls back instantly - the outage was reported once
+            if (!CircuitOpenException.isCause(e)) {
+                plugin.getLogger().log(Level.WARNING, "Failed to load homes from " + backend.getName() + ", falling back to YAML", e);
+            }
+            return fallback.loadHomes(playerId).join();
+        }).thenApply(homes -> withPendingWrites(playerId, homes));
+    }
+
+    /**
+     * Apply journaled and buffered writes that have not reached storage yet
+     */
+    private Map<String, Home> withPendingWrites(UUID playerId, Map<String, Home> homes) {
+        Map<String, Home> journaledHomes = journal != null ? journal.overlay(playerId, homes) : homes;
+        return writeBehind != null ? writeBehind.overlay(playerId, journaledHomes) : journaledHomes;
+    }
+
+    /**
+     * Replace all homes of a player - only the differences are written
+     * Blocking on cache miss
+     * @deprecated stalls the calling thread on storage; use {@link #setHomeAsync(UUID, Home)} and
+     *             {@link #deleteHomeAsync(UUID, String)}
+     */
+    @Deprecated
+    public void saveHomes(UUID playerId, Map<String, Home> homes) {
+        HomeSnapshot previous = loadHomes(playerId);
+        Map<String, Home> stored = new HashMap<>();
+        List<HomeWrite> writes = new ArrayList<>();
+
+        for (Home home : homes.values()) {
+            Home old = previous.get(home.getName());
+            if (home == old) {
+                stored.put(home.getName().toLowerCase(), home);
+                continue;
+            }
+
+            HomeWrite write = versionedSave(playerId, home, old);
+            stored.put(home.getName().toLowerCase(), write.getHome());
+            indexChange(playerId, old, write.getHome());
+            writes.add(write);
+        }
+        for (String homeName : previous.names()) {
+            if (!stored.containsKey(homeName)) {
+                indexChange(playerId, previous.get(homeName), null);
+                writes.add(versionedDelete(playerId, homeName, previous.get(homeName)));
+            }
+        }
+
+        HomeSnapshot snapshot = HomeSnapshot.of(stored);
+        putCached(playerId, snapshot);
+        for (HomeWrite write : writes) {
+            persist(playerId, write, snapshot);
         }
     }
 
     /**
      * Get a specific home for a player
+     * Blocking on cache miss
+     * @deprecated stalls the calling thread on storage; use {@link #getHomeAsync(UUID, String)}
      */
+    @Deprecated
     public Home getHome(UUID playerId, String homeName) {
-        Map<String, Home> homes = loadHomes(playerId);
-        return homes.get(homeName.toLowerCase());
+        return loadHomes(playerId).get(homeName);
     }
 
     /**
-     * Add or update a home for a player
+     * Add or update a home for a player - returns before the write is persisted and drops its failure
+     * @deprecated use {@link #setHomeAsync(UUID, Home)}, which reports when and whether the write succeeded
      */
+    @Deprecated
     public void setHome(UUID playerId, Home home) {
-        Map<String, Home> homes = loadHomes(playerId);
-        homes.put(home.getName().toLowerCase(), home);
-        
-        // Save to cache and storage
-        cache.put(playerId, new HashMap<>(homes));
-        
-        if (useMysql) {
-            mysqlStorage.saveHome(playerId, home);
-        } else {
-            saveToYAML(playerId, homes);
-        }
+        setHomeAsync(playerId, home);
     }
 
     /**
-     * Remove a home for a player
+     * Remove a home for a player - returns before the delete is persisted and drops its failure
+     * @deprecated use {@link #deleteHomeAsync(UUID, String)}, which reports when and whether the delete succeeded
      */
+    @Deprecated
     public void deleteHome(UUID playerId, String homeName) {
-        Map<String, Home> homes = loadHomes(playerId);
-        homes.remove(homeName.toLowerCase());
-        
-        // Update cache
-        cache.put(playerId, new HashMap<>(homes));
-        
-        if (useMysql) {
-            mysqlStorage.deleteHome(playerId, homeName);
-        } else {
-            saveToYAML(playerId, homes);
-        }
+        deleteHomeAsync(playerId, homeName);
     }
 
     /**
-     * Get all homes for a player
+     * Get all homes for a player (read-only view)
+     * Blocking on cache miss
+     * @deprecated stalls the calling thread on storage; use {@link #getHomesAsync(UUID)}
      */
+    @Deprecated
     public Map<String, Home> getHomes(UUID playerId) {
-        return loadHomes(playerId);
+        return loadHomes(playerId).asMap();
+    }
+
+    /**
+     * Delete every home in a world (e.g. after a world reset) - completes on the main thread
+     * Completes with null if another purge is already running
+     */
+    public CompletableFuture<PurgeResult> purgeWorld(String world) {
+        return purge(() -> {
+            Map<String, OwnedHome> homes = new LinkedHashMap<>();
+            backend.forEachHomeInWorld(world, (playerId, home) ->
+                    homes.put(playerId + ":" + home.getName().toLowerCase(), new OwnedHome(playerId, home))).join();
+
+            // Cached homes may not have reached storage yet
+            List<Map.Entry<UUID, HomeSnapshot>> cached = new ArrayList<>(onlineHomes.entrySet());
+            cached.addAll(offlineCache.asMap().entrySet());
+            for (Map.Entry<UUID, HomeSnapshot> entry : cached) {
+                for (Home home : entry.getValue().asMap().values()) {
+                    if (home.getWorldName().equals(world)) {
+                        homes.putIfAbsent(entry.getKey() + ":" + home.getName().toLowerCase(), new OwnedHome(entry.getKey(), home));
+                    }
+                }
+            }
+            return new ArrayList<>(homes.values());
+        });
+    }
+
+    /**
+     * Delete all homes and stored data of players (e.g. long inactive) - completes on the main thread
+     * Online players are skipped; completes with null if another purge is already running
+     */
+    public CompletableFuture<PurgeResult> purgePlayers(List<UUID> players) {
+        List<UUID> offline = new ArrayList<>(players);
+        offline.removeIf(onlineHomes::containsKey);
+
+        return purge(() -> {
+            List<OwnedHome> homes = new ArrayList<>();
+            for (UUID playerId : offline) {
+                // No YAML fallback - a failed read must abort the purge, not look like a player without homes
+                for (Home home : withPendingWrites(playerId, backend.loadAllHomes(playerId).join()).values()) {
+                    homes.add(new OwnedHome(playerId, home));
+                }
+            }
+            return homes;
+        }).thenCompose(result -> result == null ? CompletableFuture.completedFuture(null)
+                : onMainThread(backend.deletePlayerData(offline).thenApply(ignored -> result)));
+    }
+
+    /**
+     * Delete the selected homes in batches off the main thread - completes on the main thread
+     */
+    private CompletableFuture<PurgeResult> purge(Supplier<List<OwnedHome>> selector) {
+        if (!purgeRunning.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<PurgeResult> result = CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            List<OwnedHome> homes = selector.get();
+            int batchSize = Math.max(1, config.getInt("storage.purge.batch-size", 500));
+
+            Set<UUID> players = new HashSet<>();
+            int deleted = 0;
+            for (int from = 0; from < homes.size() && plugin.isEnabled(); from += batchSize) {
+                List<OwnedHome> batch = homes.subList(from, Math.min(homes.size(), from + batchSize));
+                if (writeBehind == null) {
+                    List<HomeWrite> writes = new ArrayList<>(batch.size());
+                    for (OwnedHome entry : batch) {
+                        writes.add(HomeWrite.delete(entry.getPlayerId(), entry.getHome().getName()));
+                    }
+                    writeBatch(writes).join();
+                }
+
+                // Cache changes happen on the main thread so they cannot interleave with /sethome
+                CompletableFuture.runAsync(() -> removePurged(batch), mainThreadExecutor).join();
+
+                for (OwnedHome entry : batch) {
+                    players.add(entry.getPlayerId());
+                }
+                deleted += batch.size();
+            }
+
+            if (writeBehind != null) {
+                writeBehind.flush();
+            }
+            return new PurgeResult(players.size(), deleted, System.currentTimeMillis() - start);
+        }, asyncExecutor);
+
+        result.whenComplete((ignored, error) -> purgeRunning.set(false));
+        return onMainThread(result);
     }
 
     /**
-     * Clear cache for a player (useful when player logs out)
+     * Drop purged homes from memory and queue their deletion when write-behind is enabled
+     */
+    private void removePurged(List<OwnedHome> homes) {
+        for (OwnedHome entry : homes) {
+            UUID playerId = entry.getPlayerId();
+            String homeName = entry.getHome().getName();
+
+            HomeSnapshot cached = getCachedSnapshot(playerId);
+            Home current = cached != null ? cached.get(homeName) : null;
+            indexChange(playerId, current != null ? current : entry.getHome(), null);
+
+            // Online players stay pinned; offline entries are simply reloaded on next access
+            HomeSnapshot online = onlineHomes.get(playerId);
+            if (online != null) {
+                onlineHomes.replace(playerId, online.without(homeName));
+            } else {
+                offlineCache.invalidate(playerId);
+            }
+
+            if (writeBehind != null) {
+                writeBehind.enqueue(HomeWrite.delete(playerId, homeName));
+            }
+        }
+    }
+
+    /**
+     * Get home count for a player without copying
+     * Blocking on cache miss
+     * @deprecated stalls the calling thread on storage; use {@link #getSnapshotAsync(UUID)} and its size
+     */
+    @Deprecated
+    public int getHomeCount(UUID playerId) {
+        return loadHomes(playerId).size();
+    }
+
+    /**
+     * Unpin a player's homes (on logout) - they stay in the offline tier until evicted
      */
     public void unloadPlayer(UUID playerId) {
-        cache.invalidate(playerId);
+        HomeSnapshot snapshot = onlineHomes.remove(playerId);
+        if (snapshot != null && offlineCacheEnabled) {
+            offlineCache.put(playerId, snapshot);
+        }
     }
 
     /**
      * Get cache statistics
      */
     public String getCacheStats() {
-        return String.format("Size: %d, Hit rate: %.2f%%", 
-            cache.size(), 
-            cache.stats().hitRate() * 100);
+        CacheStats stats = offlineCache.stats();
+        return String.format("Online: %d, Offline: %d, Hit rate: %.2f%%, Evictions: %d, Loader loads: %d, Refreshes: %d, Loads: %d, Deduplicated: %d, Remote refreshes: %d", 
+            onlineHomes.size(),
+            offlineCache.estimatedSize(), 
+            stats.hitRate() * 100,
+            stats.evictionCount(),
+            stats.loadSuccessCount(),
+            refreshes.get(),
+            backendLoads.get(),
+            sharedLoads.get(),
+            remoteRefreshes.get());
+    }
+
+    /**
+     * Get write-behind queue statistics
+     */
+    public String getWriteStats() {
+        String stats = writeBehind != null ? writeBehind.getStats() : "Write-behind disabled";
+        if (journal != null) {
+            stats += " | Journal: " + journal.getStats();
+        }
+        String backendStats = backend.getStats();
+        return backendStats.isEmpty() ? stats : stats + " | " + backend.getName() + ": " + backendStats;
+    }
+
+    /**
+     * Get spatial index statistics
+     */
+    public String getSpatialIndexStats() {
+        SpatialIndex index = spatialIndex;
+        return index != null ? index.getStats() : "Spatial index disabled";
+    }
+
+    /**
+     * MySQL circuit breaker and pool status, or null if MySQL is not in use
+     */
+    public String getDatabaseStatus() {
+        return databaseManager != null && databaseManager.isEnabled() ? databaseManager.getStatus() : null;
+    }
+
+    /**
+     * Check if MySQL is in use and currently reachable
+     */
+    public boolean isDatabaseAvailable() {
+        return databaseManager != null && databaseManager.isAvailable();
+    }
+
+    /**
+     * Active storage backend
+     */
+    public StorageBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Type of the active backend (YAML, MYSQL, SQLITE or BINARY)
+     */
+    public String getStorageType() {
+        return storageType;
+    }
+
+    /**
+     * Flush buffered writes and stop background tasks (blocking)
+     */
+    public void shutdown() {
+        if (journalTask != null) {
+            journalTask.cancel();
+        }
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+        if (journal != null) {
+            // Last chance to store journaled writes - whatever is left is replayed on next start
+            journal.replay();
+            journal.close();
+        }
+        backend.shutdown();
+        if (fallback != null) {
+            fallback.shutdown();
+        }
     }
 
     /**
-     * Clear all cache
+     * Clear the offline tier (online players stay pinned)
      */
     public void clearCache() {
-        cache.invalidateAll();
+        offlineCache.invalidateAll();
         plugin.getLogger().info("Cache cleared");
     }
 }
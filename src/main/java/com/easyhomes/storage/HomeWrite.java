@@ -0,0 +1,145 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Single pending home mutation - an upsert or a delete
+ * Conditional writes only apply if the stored home still has the expected version (compare-and-set);
+ * the write id stored with the row tells a write that was already applied from one that lost to another change
+ */
+public final class HomeWrite {
+    /**
+     * Expected version of unconditional writes
+     */
+    public static final long ANY_VERSION = -1;
+    /**
+     * Expected version of writes that create a home
+     */
+    public static final long NO_VERSION = 0;
+
+    private final UUID playerId;
+    private final String homeName;
+    private final Home home;
+    private final long expectedVersion;
+    // Random id stored with the row it writes - tells a write that was already applied from a competing one
+    private final long id;
+
+    private HomeWrite(UUID playerId, String homeName, Home home, long expectedVersion, long id) {
+        this.playerId = playerId;
+        this.homeName = homeName.toLowerCase();
+        this.home = home;
+        this.expectedVersion = expectedVersion;
+        this.id = id;
+    }
+
+    /**
+     * New random write id - never 0, which marks rows written without one
+     */
+    private static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    /**
+     * Insert or update a home, overwriting whatever is stored
+     */
+    public static HomeWrite save(UUID playerId, Home home) {
+        return save(playerId, home, ANY_VERSION);
+    }
+
+    /**
+     * Insert or update a home that is expected to be stored with the given version (NO_VERSION = not stored)
+     */
+    public static HomeWrite save(UUID playerId, Home home, long expectedVersion) {
+        return new HomeWrite(playerId, home.getName(), home, expectedVersion, newId());
+    }
+
+    /**
+     * Delete a home, whatever version is stored
+     */
+    public static HomeWrite delete(UUID playerId, String homeName) {
+        return delete(playerId, homeName, ANY_VERSION);
+    }
+
+    /**
+     * Delete a home that is expected to be stored with the given version
+     */
+    public static HomeWrite delete(UUID playerId, String homeName, long expectedVersion) {
+        return new HomeWrite(playerId, homeName, null, expectedVersion, newId());
+    }
+
+    /**
+     * Recreate a write read back from the journal, keeping its id (0 = journaled without one, gets a new id)
+     */
+    static HomeWrite restore(UUID playerId, String homeName, Home home, long expectedVersion, long id) {
+        return new HomeWrite(playerId, homeName, home, expectedVersion, id != 0 ? id : newId());
+    }
+
+    /**
+     * Same change expecting another stored version
+     */
+    public HomeWrite withExpectedVersion(long expectedVersion) {
+        return new HomeWrite(playerId, homeName, home, expectedVersion, id);
+    }
+
+    /**
+     * This write in place of an older write of the same home that never reached storage: it expects what the
+     * older one expected. Unconditional writes stay unconditional.
+     */
+    public HomeWrite replacing(HomeWrite older) {
+        return isConditional() ? withExpectedVersion(older.getExpectedVersion()) : this;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Lower-case home name
+     */
+    public String getHomeName() {
+        return homeName;
+    }
+
+    /**
+     * Home to save, or null for a delete
+     */
+    public Home getHome() {
+        return home;
+    }
+
+    public boolean isDelete() {
+        return home == null;
+    }
+
+    /**
+     * Stored version this write expects, or ANY_VERSION
+     */
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    /**
+     * Id of this write, stored with the row it writes
+     */
+    public long getId() {
+        return id;
+    }
+
+    public boolean isConditional() {
+        return expectedVersion != ANY_VERSION;
+    }
+
+    /**
+     * Version the home has once this write is applied
+     */
+    public long getNewVersion() {
+        return Math.max(home != null ? home.getVersion() : 0, expectedVersion + 1);
+    }
+}
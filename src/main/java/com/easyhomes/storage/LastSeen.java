@@ -0,0 +1,33 @@
+package com.easyhomes.storage;
+
+import java.util.UUID;
+
+/**
+ * Last time a player was seen on the server
+ */
+public final class LastSeen {
+    private final UUID playerId;
+    private final String name;
+    private final long time;
+
+    public LastSeen(UUID playerId, String name, long time) {
+        this.playerId = playerId;
+        this.name = name;
+        this.time = time;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Epoch milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,313 @@
+package com.easyhomes.storage;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Memory-mapped UUID -> record location index for the binary home log
+ * Open addressing hash table with linear probing, grown by doubling
+ */
+public class LogIndex {
+    private static final int MAGIC = 0x45484958; // "EHIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 32;
+    private static final int MIN_CAPACITY = 1024;
+
+    // Header layout
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_CAPACITY = 8;
+    private static final int HEADER_SIZE_FIELD = 12;
+    private static final int HEADER_CLEAN = 16;
+
+    // Slot layout: msb, lsb, location (0 = empty), record length
+    private static final int SLOT_MSB = 0;
+    private static final int SLOT_LSB = 8;
+    private static final int SLOT_LOCATION = 16;
+    private static final int SLOT_LENGTH = 24;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int size;
+    private final boolean recovered;
+
+    private LogIndex(FileChannel channel, MappedByteBuffer buffer, int capacity, int size, boolean recovered) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.size = size;
+        this.recovered = recovered;
+    }
+
+    /**
+     * Open the index file - a missing, foreign or uncleanly closed index is reset and must be rebuilt
+     */
+    public static LogIndex open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() >= HEADER_SIZE) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            int capacity = header.getInt(HEADER_CAPACITY);
+            boolean valid = header.getInt(HEADER_MAGIC) == MAGIC
+                    && header.getInt(HEADER_VERSION) == FORMAT_VERSION
+                    && header.get(HEADER_CLEAN) == 1
+                    && capacity >= MIN_CAPACITY && Integer.bitCount(capacity) == 1
+                    && channel.size() == fileSize(capacity);
+
+            if (valid) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+                LogIndex index = new LogIndex(channel, buffer, capacity, buffer.getInt(HEADER_SIZE_FIELD), false);
+                index.markDirty();
+                return index;
+            }
+        }
+
+        LogIndex index = new LogIndex(channel, null, MIN_CAPACITY, 0, true);
+        index.reset(MIN_CAPACITY);
+        return index;
+    }
+
+    private static long fileSize(int capacity) {
+        return HEADER_SIZE + (long) capacity * SLOT_SIZE;
+    }
+
+    /**
+     * Whether the index was reset on open and has to be rebuilt from the segments
+     */
+    public boolean needsRebuild() {
+        return recovered;
+    }
+
+    /**
+     * Location and length of the player's latest record, or null if unknown
+     */
+    public synchronized Entry get(UUID playerId) {
+        int slot = find(playerId);
+        if (slot < 0) {
+            return null;
+        }
+        int offset = slotOffset(slot);
+        return new Entry(buffer.getLong(offset + SLOT_LOCATION), buffer.getInt(offset + SLOT_LENGTH));
+    }
+
+    /**
+     * Point the player at a new record
+     */
+    public synchronized void put(UUID playerId, long location, int length) {
+        if ((size + 1) * 2L > capacity) {
+            grow();
+        }
+
+        int slot = probe(playerId);
+        int offset = slotOffset(slot);
+        if (buffer.getLong(offset + SLOT_LOCATION) == 0) {
+            buffer.putLong(offset + SLOT_MSB, playerId.getMostSignificantBits());
+            buffer.putLong(offset + SLOT_LSB, playerId.getLeastSignificantBits());
+            size++;
+            buffer.putInt(HEADER_SIZE_FIELD, size);
+        }
+        buffer.putLong(offset + SLOT_LOCATION, location);
+        buffer.putInt(offset + SLOT_LENGTH, length);
+    }
+
+    /**
+     * Remove the player from the index
+     */
+    public synchronized void remove(UUID playerId) {
+        int slot = find(playerId);
+        if (slot < 0) {
+            return;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (buffer.getLong(slotOffset(next) + SLOT_LOCATION) != 0) {
+            int nextOffset = slotOffset(next);
+            int home = mix(buffer.getLong(nextOffset + SLOT_MSB) ^ buffer.getLong(nextOffset + SLOT_LSB)) & mask;
+            // Move the entry into the hole unless its home slot lies cyclically in (hole, next]
+            boolean stays = hole <= next ? (home > hole && home <= next) : (home > hole || home <= next);
+            if (!stays) {
+                copySlot(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        int holeOffset = slotOffset(hole);
+        buffer.putLong(holeOffset + SLOT_MSB, 0);
+        buffer.putLong(holeOffset + SLOT_LSB, 0);
+        buffer.putLong(holeOffset + SLOT_LOCATION, 0);
+        buffer.putInt(holeOffset + SLOT_LENGTH, 0);
+        size--;
+        buffer.putInt(HEADER_SIZE_FIELD, size);
+    }
+
+    private void copySlot(int from, int to) {
+        int fromOffset = slotOffset(from);
+        int toOffset = slotOffset(to);
+        buffer.putLong(toOffset + SLOT_MSB, buffer.getLong(fromOffset + SLOT_MSB));
+        buffer.putLong(toOffset + SLOT_LSB, buffer.getLong(fromOffset + SLOT_LSB));
+        buffer.putLong(toOffset + SLOT_LOCATION, buffer.getLong(fromOffset + SLOT_LOCATION));
+        buffer.putInt(toOffset + SLOT_LENGTH, buffer.getInt(fromOffset + SLOT_LENGTH));
+    }
+
+    /**
+     * Visit every indexed player with its record location
+     */
+    public synchronized void forEach(EntryVisitor visitor) {
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = slotOffset(slot);
+            long location = buffer.getLong(offset + SLOT_LOCATION);
+            if (location != 0) {
+                UUID playerId = new UUID(buffer.getLong(offset + SLOT_MSB), buffer.getLong(offset + SLOT_LSB));
+                visitor.visit(playerId, location, buffer.getInt(offset + SLOT_LENGTH));
+            }
+        }
+    }
+
+    /**
+     * Number of indexed players
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Drop all entries (used before a rebuild)
+     */
+    public synchronized void clear() throws IOException {
+        reset(MIN_CAPACITY);
+    }
+
+    private int find(UUID playerId) {
+        int slot = probe(playerId);
+        return buffer.getLong(slotOffset(slot) + SLOT_LOCATION) != 0 ? slot : -1;
+    }
+
+    /**
+     * Slot holding the player, or the empty slot where it would be inserted
+     */
+    private int probe(UUID playerId) {
+        long msb = playerId.getMostSignificantBits();
+        long lsb = playerId.getLeastSignificantBits();
+        int mask = capacity - 1;
+        int slot = mix(msb ^ lsb) & mask;
+
+        while (true) {
+            int offset = slotOffset(slot);
+            if (buffer.getLong(offset + SLOT_LOCATION) == 0
+                    || (buffer.getLong(offset + SLOT_MSB) == msb && buffer.getLong(offset + SLOT_LSB) == lsb)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Double the table - entries are collected on the heap and re-inserted into the enlarged file
+     */
+    private void grow() {
+        long[][] entries = new long[size][];
+        int count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = slotOffset(slot);
+            long location = buffer.getLong(offset + SLOT_LOCATION);
+            if (location != 0) {
+                entries[count++] = new long[]{buffer.getLong(offset + SLOT_MSB), buffer.getLong(offset + SLOT_LSB),
+                        location, buffer.getInt(offset + SLOT_LENGTH)};
+            }
+        }
+
+        try {
+            reset(capacity * 2);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to grow home index", e);
+        }
+
+        for (int i = 0; i < count; i++) {
+            long[] entry = entries[i];
+            int offset = slotOffset(probe(new UUID(entry[0], entry[1])));
+            buffer.putLong(offset + SLOT_MSB, entry[0]);
+            buffer.putLong(offset + SLOT_LSB, entry[1]);
+            buffer.putLong(offset + SLOT_LOCATION, entry[2]);
+            buffer.putInt(offset + SLOT_LENGTH, (int) entry[3]);
+        }
+        size = count;
+        buffer.putInt(HEADER_SIZE_FIELD, size);
+    }
+
+    private void reset(int newCapacity) throws IOException {
+        // Truncate first so the re-mapped region reads as zeroes (empty slots)
+        channel.truncate(0);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(newCapacity));
+        capacity = newCapacity;
+        size = 0;
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, FORMAT_VERSION);
+        buffer.putInt(HEADER_CAPACITY, capacity);
+        buffer.putInt(HEADER_SIZE_FIELD, 0);
+        buffer.put(HEADER_CLEAN, (byte) 0);
+    }
+
+    private void markDirty() {
+        buffer.put(HEADER_CLEAN, (byte) 0);
+        buffer.force();
+    }
+
+    /**
+     * Flush the mapping and mark the index as consistent with the segments
+     */
+    public synchronized void close() throws IOException {
+        buffer.force();
+        buffer.put(HEADER_CLEAN, (byte) 1);
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Callback for {@link #forEach(EntryVisitor)}
+     */
+    public interface EntryVisitor {
+        void visit(UUID playerId, long location, int length);
+    }
+
+    /**
+     * Record location (segment id and offset) and length
+     */
+    public static final class Entry {
+        private final long location;
+        private final int length;
+
+        Entry(long location, int length) {
+            this.location = location;
+            this.length = length;
+        }
+
+        public long getLocation() {
+            return location;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+
+import java.util.UUID;
+
+/**
+ * A home together with the player that owns it
+ */
+public final class OwnedHome {
+    private final UUID playerId;
+    private final Home home;
+
+    public OwnedHome(UUID playerId, Home home) {
+        this.playerId = playerId;
+        this.home = home;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public Home getHome() {
+        return home;
+    }
+
+    /**
+     * Squared horizontal distance to the given coordinates
+     */
+    public double distanceSquared(double x, double z) {
+        double dx = home.getX() - x;
+        double dz = home.getZ() - z;
+        return dx * dx + dz * dz;
+    }
+}
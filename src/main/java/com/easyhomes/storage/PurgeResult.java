@@ -0,0 +1,34 @@
+package com.easyhomes.storage;
+
+/**
+ * Outcome of a bulk home deletion
+ */
+public final class PurgeResult {
+    private final int players;
+    private final int homes;
+    private final long durationMillis;
+
+    public PurgeResult(int players, int homes, long durationMillis) {
+        this.players = players;
+        this.homes = homes;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Number of players that lost at least one home
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Number of deleted homes
+     */
+    public int getHomes() {
+        return homes;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
@@ -0,0 +1,253 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of all homes, keyed by world and square cells of the X/Z plane
+ * Area and radius queries only visit the cells that overlap the searched area
+ */
+public class SpatialIndex {
+    private final int cellShift;
+    private final Map<String, Map<Long, List<OwnedHome>>> worlds = new HashMap<>();
+    // Indexed homes of each player by lower-cased name - finds entries without knowing their old position
+    private final Map<UUID, Map<String, OwnedHome>> players = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    // Homes changed while the index is being built - the build must not overwrite them with older data
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    /**
+     * @param cellSize cell edge length in blocks, rounded up to a power of two
+     */
+    public SpatialIndex(int cellSize) {
+        int size = Integer.highestOneBit(Math.max(16, cellSize) - 1) << 1;
+        this.cellShift = Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Whether the initial build has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Start the initial build - writes from now on take precedence over loaded homes
+     */
+    public void beginBuild() {
+        building = true;
+    }
+
+    /**
+     * Add a home read from storage during the initial build
+     */
+    public void addLoaded(UUID playerId, Home home) {
+        lock.writeLock().lock();
+        try {
+            if (!touched.contains(key(playerId, home.getName()))) {
+                insert(playerId, home);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finish the initial build and start answering queries
+     */
+    public void finishBuild() {
+        building = false;
+        touched.clear();
+        ready = true;
+    }
+
+    /**
+     * Replace a player's home - either side may be null (create / delete)
+     */
+    public void update(UUID playerId, Home oldHome, Home newHome) {
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                touched.add(key(playerId, oldHome != null ? oldHome.getName() : newHome.getName()));
+            }
+            if (oldHome != null) {
+                delete(playerId, oldHome.getName());
+            }
+            if (newHome != null) {
+                insert(playerId, newHome);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace all indexed homes of a player - for changes whose previous homes are not known here
+     */
+    public void replacePlayer(UUID playerId, Collection<Home> homes) {
+        lock.writeLock().lock();
+        try {
+            Map<String, OwnedHome> indexed = players.get(playerId);
+            List<String> names = indexed != null ? new ArrayList<>(indexed.keySet()) : new ArrayList<>();
+            for (String homeName : names) {
+                delete(playerId, homeName);
+            }
+            for (Home home : homes) {
+                insert(playerId, home);
+                names.add(home.getName());
+            }
+            if (building) {
+                for (String homeName : names) {
+                    touched.add(key(playerId, homeName));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(UUID playerId, Home home) {
+        // Never keep two entries for the same home
+        delete(playerId, home.getName());
+
+        OwnedHome entry = new OwnedHome(playerId, home);
+        worlds.computeIfAbsent(home.getWorldName(), world -> new HashMap<>())
+                .computeIfAbsent(cellKey(cell(home.getX()), cell(home.getZ())), cell -> new ArrayList<>(4))
+                .add(entry);
+        players.computeIfAbsent(playerId, id -> new HashMap<>(4)).put(home.getName().toLowerCase(), entry);
+        size++;
+    }
+
+    private void delete(UUID playerId, String homeName) {
+        Map<String, OwnedHome> indexed = players.get(playerId);
+        OwnedHome entry = indexed != null ? indexed.remove(homeName.toLowerCase()) : null;
+        if (entry == null) {
+            return;
+        }
+        if (indexed.isEmpty()) {
+            players.remove(playerId);
+        }
+
+        Home home = entry.getHome();
+        Map<Long, List<OwnedHome>> cells = worlds.get(home.getWorldName());
+        long cellKey = cellKey(cell(home.getX()), cell(home.getZ()));
+        List<OwnedHome> entries = cells.get(cellKey);
+        entries.remove(entry);
+        size--;
+
+        if (entries.isEmpty()) {
+            cells.remove(cellKey);
+        }
+        if (cells.isEmpty()) {
+            worlds.remove(home.getWorldName());
+        }
+    }
+
+    /**
+     * Homes inside the rectangle [minX, maxX] x [minZ, maxZ]
+     */
+    public List<OwnedHome> findInArea(String world, double minX, double minZ, double maxX, double maxZ) {
+        List<OwnedHome> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, List<OwnedHome>> cells = worlds.get(world);
+            if (cells == null) {
+                return result;
+            }
+
+            for (int cellX = cell(minX); cellX <= cell(maxX); cellX++) {
+                for (int cellZ = cell(minZ); cellZ <= cell(maxZ); cellZ++) {
+                    List<OwnedHome> entries = cells.get(cellKey(cellX, cellZ));
+                    if (entries == null) {
+                        continue;
+                    }
+
+                    for (OwnedHome entry : entries) {
+                        Home home = entry.getHome();
+                        if (home.getX() >= minX && home.getX() <= maxX && home.getZ() >= minZ && home.getZ() <= maxZ) {
+                            result.add(entry);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Homes within the horizontal radius, nearest first
+     */
+    public List<OwnedHome> findNear(String world, double x, double z, double radius) {
+        return filterByRadius(findInArea(world, x - radius, z - radius, x + radius, z + radius), x, z, radius);
+    }
+
+    /**
+     * Keep homes within the radius of a square query result and sort them by distance
+     */
+    public static List<OwnedHome> filterByRadius(List<OwnedHome> homes, double x, double z, double radius) {
+        double radiusSquared = radius * radius;
+        homes.removeIf(entry -> entry.distanceSquared(x, z) > radiusSquared);
+        homes.sort(Comparator.comparingDouble(entry -> entry.distanceSquared(x, z)));
+        return homes;
+    }
+
+    /**
+     * Number of indexed homes
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get index statistics
+     */
+    public String getStats() {
+        lock.readLock().lock();
+        try {
+            int cells = 0;
+            for (Map<Long, List<OwnedHome>> worldCells : worlds.values()) {
+                cells += worldCells.size();
+            }
+            return String.format("Homes: %d, Worlds: %d, Cells: %d (%d blocks), Ready: %s",
+                    size, worlds.size(), cells, 1 << cellShift, ready);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate) >> cellShift;
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xffffffffL);
+    }
+
+    private static String key(UUID playerId, String homeName) {
+        return playerId + ":" + homeName.toLowerCase();
+    }
+}
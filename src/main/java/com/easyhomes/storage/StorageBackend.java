@@ -0,0 +1,185 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import com.easyhomes.util.QueryMetrics;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Persistent storage for player homes (MySQL, SQLite, YAML...)
+ * All methods are asynchronous - implementations run their I/O off the main thread
+ */
+public interface StorageBackend {
+
+    /**
+     * Display name of the backend
+     */
+    String getName();
+
+    /**
+     * Load all homes for a player, keyed by lower-case home name
+     */
+    CompletableFuture<Map<String, Home>> loadHomes(UUID playerId);
+
+    /**
+     * Load every stored home of a player, including homes that {@link #loadHomes(UUID)} hides (e.g. in worlds
+     * that are not loaded) - for migrations and purges, which must see all rows
+     */
+    default CompletableFuture<Map<String, Home>> loadAllHomes(UUID playerId) {
+        return loadHomes(playerId);
+    }
+
+    /**
+     * Load the homes of several players at once, keyed by player (players without homes map to an empty map)
+     * The default implementation loads players one by one
+     */
+    default CompletableFuture<Map<UUID, Map<String, Home>>> loadHomes(List<UUID> players) {
+        Map<UUID, CompletableFuture<Map<String, Home>>> loads = new LinkedHashMap<>();
+        for (UUID playerId : players) {
+            loads.put(playerId, loadHomes(playerId));
+        }
+
+        return CompletableFuture.allOf(loads.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<UUID, Map<String, Home>> homes = new HashMap<>();
+            loads.forEach((playerId, load) -> homes.put(playerId, load.join()));
+            return homes;
+        });
+    }
+
+    /**
+     * UUIDs of all players that have homes stored (used by migrations)
+     */
+    CompletableFuture<List<UUID>> listPlayers();
+
+    /**
+     * Stream every stored home to the consumer (called on a storage thread)
+     * The default implementation loads players one by one
+     */
+    default CompletableFuture<Void> forEachHome(BiConsumer<UUID, Home> consumer) {
+        return listPlayers().thenAccept(players -> {
+            for (UUID playerId : players) {
+                for (Home home : loadHomes(playerId).join().values()) {
+                    consumer.accept(playerId, home);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stream every home stored in a world to the consumer (called on a storage thread)
+     * The default implementation filters {@link #forEachHome(BiConsumer)}
+     */
+    default CompletableFuture<Void> forEachHomeInWorld(String world, BiConsumer<UUID, Home> consumer) {
+        return forEachHome((playerId, home) -> {
+            if (home.getWorldName().equals(world)) {
+                consumer.accept(playerId, home);
+            }
+        });
+    }
+
+    /**
+     * Homes inside the rectangle [minX, maxX] x [minZ, maxZ] of a world, using a storage index
+     * Backends without a spatial index complete exceptionally with UnsupportedOperationException
+     */
+    default CompletableFuture<List<OwnedHome>> findHomesInArea(String world, double minX, double minZ, double maxX, double maxZ) {
+        CompletableFuture<List<OwnedHome>> result = new CompletableFuture<>();
+        result.completeExceptionally(new UnsupportedOperationException(getName() + " does not support area queries"));
+        return result;
+    }
+
+    /**
+     * Record when players were last seen
+     * Backends without a players table rely on the server's own player data instead
+     */
+    default CompletableFuture<Void> recordLastSeen(List<LastSeen> players) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Players with homes that have not been seen since the cutoff, oldest first
+     * The default implementation uses the last-played time of the server's player data
+     */
+    default CompletableFuture<List<UUID>> listInactivePlayers(long cutoff, int limit) {
+        return listPlayers().thenApply(players -> {
+            Map<UUID, Long> lastPlayed = new HashMap<>();
+            for (UUID playerId : players) {
+                long time = Bukkit.getOfflinePlayer(playerId).getLastPlayed();
+                // 0 = never seen by this server - do not guess
+                if (time > 0 && time < cutoff) {
+                    lastPlayed.put(playerId, time);
+                }
+            }
+
+            List<UUID> inactive = new ArrayList<>(lastPlayed.keySet());
+            inactive.sort(Comparator.comparing(lastPlayed::get));
+            return new ArrayList<>(inactive.subList(0, Math.min(limit, inactive.size())));
+        });
+    }
+
+    /**
+     * Remove everything else stored about purged players (statistics, last seen) and any home rows left,
+     * deleted by owner rather than by a listing that may have missed some
+     */
+    default CompletableFuture<Void> deletePlayerData(List<UUID> players) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Apply a batch of saves and deletes
+     * Failures must be propagated so the caller can retry
+     */
+    CompletableFuture<Void> writeBatch(List<HomeWrite> writes);
+
+    /**
+     * Persist a single change. The snapshot is the player's full home set after the change,
+     * for backends that store one document per player.
+     */
+    default CompletableFuture<Void> save(UUID playerId, HomeWrite write, HomeSnapshot snapshot) {
+        return writeBatch(Collections.singletonList(write));
+    }
+
+    /**
+     * Whether writes may be buffered and batched by a write-behind queue
+     */
+    default boolean supportsWriteBehind() {
+        return true;
+    }
+
+    /**
+     * Backend specific statistics
+     */
+    default String getStats() {
+        return "";
+    }
+
+    /**
+     * Watch for homes changed behind the cache's back - by other servers sharing this storage, or by
+     * settling a conflicting write. The listener gets the affected players on a storage thread
+     */
+    default void watchRemoteChanges(Consumer<Set<UUID>> listener) {
+    }
+
+    /**
+     * Per-operation latency metrics, or null if the backend does not record them
+     */
+    default QueryMetrics getQueryMetrics() {
+        return null;
+    }
+
+    /**
+     * Finish pending work and release resources (blocking)
+     */
+    void shutdown();
+}
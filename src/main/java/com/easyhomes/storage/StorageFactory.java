@@ -0,0 +1,82 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.database.ChangeLog;
+import com.easyhomes.database.DatabaseManager;
+import com.easyhomes.database.MySQLStorage;
+import com.easyhomes.database.SQLiteStorage;
+import com.easyhomes.util.DebugManager;
+import com.easyhomes.util.QueryMetrics;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates storage backends from the storage.* configuration
+ */
+public class StorageFactory {
+    /**
+     * Supported values of storage.type
+     */
+    public static final List<String> TYPES = Arrays.asList("YAML", "MYSQL", "SQLITE", "BINARY");
+
+    private final Plugin plugin;
+    private final FileConfiguration config;
+    private final DebugManager debugManager;
+
+    public StorageFactory(Plugin plugin, FileConfiguration config, DebugManager debugManager) {
+        this.plugin = plugin;
+        this.config = config;
+        this.debugManager = debugManager;
+    }
+
+    /**
+     * Create and open a backend (blocking), or null if it is not available
+     * File based backends run their I/O on the given executor
+     */
+    public StorageBackend create(String type, DatabaseManager databaseManager, Executor executor) {
+        switch (type.toUpperCase()) {
+            case "YAML":
+                return new YamlStorage(plugin, debugManager, executor, config.getLong("storage.yaml.write-delay-ms", 250));
+
+            case "MYSQL":
+                if (databaseManager == null || !databaseManager.isEnabled()) {
+                    return null;
+                }
+                QueryMetrics metrics = new QueryMetrics(plugin, debugManager, config.getLong("storage.mysql.slow-query-ms", 250));
+                ChangeLog changeLog = config.getBoolean("storage.mysql.sync.enabled", false)
+                        ? new ChangeLog(plugin, databaseManager, metrics,
+                                config.getLong("storage.mysql.sync.poll-interval-ms", 1000),
+                                config.getLong("storage.mysql.sync.retention-minutes", 60) * 60_000)
+                        : null;
+                return new MySQLStorage(plugin, databaseManager, metrics, changeLog,
+                        config.getLong("storage.mysql.replica.read-your-writes-ms", 5000));
+
+            case "SQLITE":
+                SQLiteStorage sqliteStorage = new SQLiteStorage(plugin, new File(plugin.getDataFolder(),
+                        config.getString("storage.sqlite.file", "homes.db")));
+                if (sqliteStorage.initialize()) {
+                    return sqliteStorage;
+                }
+                sqliteStorage.shutdown();
+                return null;
+
+            case "BINARY":
+                BinaryLogStorage binaryStorage = new BinaryLogStorage(plugin, debugManager, executor,
+                        config.getLong("storage.binary.segment-size-mb", 64) * 1024 * 1024,
+                        config.getDouble("storage.binary.compaction-threshold", 0.5),
+                        config.getBoolean("storage.binary.fsync", true));
+                if (binaryStorage.initialize(config.getLong("storage.binary.compaction-interval-minutes", 10))) {
+                    return binaryStorage;
+                }
+                binaryStorage.shutdown();
+                return null;
+
+            default:
+                return null;
+        }
+    }
+}
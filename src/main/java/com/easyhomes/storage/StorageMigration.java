@@ -0,0 +1,195 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Copies all homes from one backend to another in batches
+ * Loads of the next batch overlap with the write of the current one; finished players are
+ * recorded in a progress file so an interrupted migration resumes where it stopped
+ */
+public class StorageMigration {
+    private final Plugin plugin;
+    private final StorageBackend source;
+    private final StorageBackend target;
+    private final Path progressFile;
+    private final int batchSize;
+
+    private final AtomicLong totalPlayers = new AtomicLong();
+    private final AtomicLong skippedPlayers = new AtomicLong();
+    private final AtomicLong migratedPlayers = new AtomicLong();
+    private final AtomicLong migratedHomes = new AtomicLong();
+    private final AtomicLong failedPlayers = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile long startNanos;
+
+    public StorageMigration(Plugin plugin, StorageBackend source, StorageBackend target, Path progressFile, int batchSize) {
+        this.plugin = plugin;
+        this.source = source;
+        this.target = target;
+        this.progressFile = progressFile;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Run the migration on the calling thread (blocking)
+     * Returns true if every player was migrated; the progress file is deleted in that case
+     */
+    public boolean run() throws IOException {
+        startNanos = System.nanoTime();
+
+        Set<UUID> done = readProgress();
+        List<UUID> players = source.listPlayers().join();
+        totalPlayers.set(players.size());
+        players.removeIf(done::contains);
+        skippedPlayers.set(totalPlayers.get() - players.size());
+
+        try (BufferedWriter progress = Files.newBufferedWriter(progressFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            List<CompletableFuture<Map<String, Home>>> next = load(players, 0);
+            for (int from = 0; from < players.size() && !cancelled; from += batchSize) {
+                List<CompletableFuture<Map<String, Home>>> current = next;
+                // Start reading the next batch while this one is written
+                next = load(players, from + batchSize);
+
+                List<UUID> loaded = new ArrayList<>(current.size());
+                List<HomeWrite> writes = new ArrayList<>();
+                for (int i = 0; i < current.size(); i++) {
+                    UUID playerId = players.get(from + i);
+                    try {
+                        for (Home home : current.get(i).join().values()) {
+                            writes.add(HomeWrite.save(playerId, home));
+                        }
+                        loaded.add(playerId);
+                    } catch (RuntimeException e) {
+                        failedPlayers.incrementAndGet();
+                        plugin.getLogger().log(Level.WARNING, "Migration: failed to read homes of player " + playerId, e);
+                    }
+                }
+
+                if (!writes.isEmpty()) {
+                    target.writeBatch(writes).join();
+                }
+
+                // Only committed players are recorded - a crash before this line re-migrates the batch
+                for (UUID playerId : loaded) {
+                    progress.write(playerId.toString());
+                    progress.newLine();
+                }
+                progress.flush();
+
+                migratedPlayers.addAndGet(loaded.size());
+                migratedHomes.addAndGet(writes.size());
+            }
+        }
+
+        boolean complete = !cancelled && failedPlayers.get() == 0;
+        if (complete) {
+            Files.deleteIfExists(progressFile);
+        }
+        return complete;
+    }
+
+    private List<CompletableFuture<Map<String, Home>>> load(List<UUID> players, int from) {
+        int to = Math.min(players.size(), from + batchSize);
+        List<CompletableFuture<Map<String, Home>>> futures = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            // Homes in worlds that are not loaded here must be copied too
+            futures.add(source.loadAllHomes(players.get(i)));
+        }
+        return futures;
+    }
+
+    private Set<UUID> readProgress() throws IOException {
+        Set<UUID> done = new HashSet<>();
+        if (!Files.exists(progressFile)) {
+            return done;
+        }
+
+        for (String line : Files.readAllLines(progressFile, StandardCharsets.UTF_8)) {
+            try {
+                done.add(UUID.fromString(line.trim()));
+            } catch (IllegalArgumentException e) {
+                // Partially written last line
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Stop after the batch that is currently being written
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getTotalPlayers() {
+        return totalPlayers.get();
+    }
+
+    /**
+     * Players already migrated, including those skipped because of a previous run
+     */
+    public long getDonePlayers() {
+        return skippedPlayers.get() + migratedPlayers.get();
+    }
+
+    public long getSkippedPlayers() {
+        return skippedPlayers.get();
+    }
+
+    public long getMigratedHomes() {
+        return migratedHomes.get();
+    }
+
+    public long getFailedPlayers() {
+        return failedPlayers.get();
+    }
+
+    /**
+     * Seconds since the migration started
+     */
+    public double getElapsedSeconds() {
+        return startNanos == 0 ? 0 : (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * Players migrated per second in this run
+     */
+    public double getPlayersPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? migratedPlayers.get() / elapsed : 0;
+    }
+
+    /**
+     * Estimated seconds until the migration finishes, or -1 if unknown
+     */
+    public long getEtaSeconds() {
+        double rate = getPlayersPerSecond();
+        if (rate <= 0) {
+            return -1;
+        }
+        return (long) ((totalPlayers.get() - getDonePlayers()) / rate);
+    }
+}
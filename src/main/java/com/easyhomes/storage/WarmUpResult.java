@@ -0,0 +1,43 @@
+package com.easyhomes.storage;
+
+/**
+ * Outcome of a bulk cache warm-up
+ */
+public final class WarmUpResult {
+    private final int players;
+    private final int homes;
+    private final int failed;
+    private final long durationMillis;
+
+    public WarmUpResult(int players, int homes, int failed, long durationMillis) {
+        this.players = players;
+        this.homes = homes;
+        this.failed = failed;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Number of players whose homes were cached
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Number of cached homes
+     */
+    public int getHomes() {
+        return homes;
+    }
+
+    /**
+     * Number of players left to load on first use because their batch failed
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
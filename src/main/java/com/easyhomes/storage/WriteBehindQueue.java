@@ -0,0 +1,240 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.database.CircuitOpenException;
+import com.easyhomes.model.Home;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Write-behind buffer for home mutations
+ * Repeated writes to the same (player, home) are coalesced and flushed in batches
+ */
+public class WriteBehindQueue {
+    private final Plugin plugin;
+    private final Function<List<HomeWrite>, CompletableFuture<Void>> writer;
+    private final int maxBatchSize;
+
+    // Pending writes per player, in arrival order - guarded by "this"
+    private final Map<UUID, Map<String, HomeWrite>> pending = new LinkedHashMap<>();
+    // Writes handed to the writer but not yet committed - guarded by "this"
+    private final Map<UUID, Map<String, HomeWrite>> inFlight = new LinkedHashMap<>();
+    private int pendingCount;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private BukkitTask flushTask;
+
+    public WriteBehindQueue(Plugin plugin, Function<List<HomeWrite>, CompletableFuture<Void>> writer,
+            long flushIntervalTicks, int maxBatchSize) {
+        this.plugin = plugin;
+        this.writer = writer;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+
+        long interval = Math.max(1, flushIntervalTicks);
+        this.flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, interval, interval);
+    }
+
+    /**
+     * Queue a write, replacing any pending write for the same home
+     * The replacement keeps the expected version of the write it replaces - that one never reached storage
+     */
+    public void enqueue(HomeWrite write) {
+        boolean full;
+        synchronized (this) {
+            Map<String, HomeWrite> playerWrites = pending.computeIfAbsent(write.getPlayerId(), id -> new LinkedHashMap<>());
+            HomeWrite replaced = playerWrites.get(write.getHomeName());
+            if (replaced == null) {
+                playerWrites.put(write.getHomeName(), write);
+                pendingCount++;
+            } else {
+                playerWrites.put(write.getHomeName(), write.replacing(replaced));
+                coalesced.incrementAndGet();
+            }
+            full = pendingCount >= maxBatchSize;
+        }
+        enqueued.incrementAndGet();
+
+        // Batch is full - flush early instead of waiting for the timer
+        if (full && plugin.isEnabled() && !flushLock.isLocked()) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, this::flush);
+        }
+    }
+
+    /**
+     * Apply writes that are not yet in storage on top of freshly loaded homes
+     */
+    public synchronized Map<String, Home> overlay(UUID playerId, Map<String, Home> loaded) {
+        Map<String, HomeWrite> writing = inFlight.get(playerId);
+        Map<String, HomeWrite> queued = pending.get(playerId);
+        if (writing == null && queued == null) {
+            return loaded;
+        }
+
+        Map<String, Home> homes = new LinkedHashMap<>(loaded);
+        if (writing != null) {
+            apply(homes, writing);
+        }
+        if (queued != null) {
+            apply(homes, queued);
+        }
+        return homes;
+    }
+
+    private void apply(Map<String, Home> homes, Map<String, HomeWrite> writes) {
+        for (HomeWrite write : writes.values()) {
+            if (write.isDelete()) {
+                homes.remove(write.getHomeName());
+            } else {
+                homes.put(write.getHomeName(), write.getHome());
+            }
+        }
+    }
+
+    /**
+     * Flush all pending writes in batches (blocking - call off the main thread, or on shutdown)
+     */
+    public void flush() {
+        // Another thread is already flushing - it will pick up our writes
+        if (!flushLock.tryLock()) {
+            return;
+        }
+
+        try {
+            flushAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushAll() {
+        List<HomeWrite> batch;
+        while (!(batch = drain()).isEmpty()) {
+            if (!writeBatch(batch)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Move up to maxBatchSize pending writes to the in-flight set
+     */
+    private synchronized List<HomeWrite> drain() {
+        List<HomeWrite> batch = new ArrayList<>(Math.min(pendingCount, maxBatchSize));
+        Iterator<Map.Entry<UUID, Map<String, HomeWrite>>> players = pending.entrySet().iterator();
+
+        while (players.hasNext() && batch.size() < maxBatchSize) {
+            Map.Entry<UUID, Map<String, HomeWrite>> entry = players.next();
+            Iterator<HomeWrite> writes = entry.getValue().values().iterator();
+
+            while (writes.hasNext() && batch.size() < maxBatchSize) {
+                HomeWrite write = writes.next();
+                writes.remove();
+                pendingCount--;
+                batch.add(write);
+                inFlight.computeIfAbsent(write.getPlayerId(), id -> new LinkedHashMap<>()).put(write.getHomeName(), write);
+            }
+
+            if (entry.getValue().isEmpty()) {
+                players.remove();
+            }
+        }
+
+        return batch;
+    }
+
+    /**
+     * Write one batch; on failure the writes go back to the queue unless superseded
+     */
+    private boolean writeBatch(List<HomeWrite> batch) {
+        boolean success;
+        try {
+            writer.apply(batch).join();
+            flushedWrites.addAndGet(batch.size());
+            batches.incrementAndGet();
+            success = true;
+        } catch (Exception e) {
+            failedBatches.incrementAndGet();
+            // An open circuit breaker was reported once already - no stack trace per flush
+            if (!CircuitOpenException.isCause(e)) {
+                plugin.getLogger().log(Level.WARNING, "Failed to flush " + batch.size() + " home writes, will retry", e);
+            }
+            success = false;
+        }
+
+        synchronized (this) {
+            for (HomeWrite write : batch) {
+                Map<String, HomeWrite> playerWrites = inFlight.get(write.getPlayerId());
+                if (playerWrites != null && playerWrites.remove(write.getHomeName(), write) && playerWrites.isEmpty()) {
+                    inFlight.remove(write.getPlayerId());
+                }
+
+                if (!success) {
+                    Map<String, HomeWrite> queued = pending.computeIfAbsent(write.getPlayerId(), id -> new LinkedHashMap<>());
+                    HomeWrite newer = queued.putIfAbsent(write.getHomeName(), write);
+                    if (newer == null) {
+                        pendingCount++;
+                    } else {
+                        // The newer write expected this one to be stored
+                        queued.put(write.getHomeName(), newer.replacing(write));
+                    }
+                }
+            }
+        }
+
+        return success;
+    }
+
+    /**
+     * Number of writes waiting to be flushed
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Get queue statistics
+     */
+    public String getStats() {
+        return String.format("Pending: %d, Enqueued: %d, Coalesced: %d, Flushed: %d in %d batches, Failed batches: %d",
+                getPendingCount(), enqueued.get(), coalesced.get(), flushedWrites.get(), batches.get(), failedBatches.get());
+    }
+
+    /**
+     * Stop the flush timer and synchronously drain everything that is still pending
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        // Wait for a flush that may be running on an async thread, then drain the rest
+        flushLock.lock();
+        try {
+            flushAll();
+        } finally {
+            flushLock.unlock();
+        }
+
+        int left = getPendingCount();
+        if (left > 0) {
+            plugin.getLogger().warning("Could not flush " + left + " pending home writes on shutdown");
+        }
+    }
+}
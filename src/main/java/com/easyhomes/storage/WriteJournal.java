@@ -0,0 +1,363 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import org.bukkit.plugin.Plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Local, fsync'd journal of home writes that could not reach storage
+ * Journaled writes are replayed in order, in batches, once storage is available again. Replays are
+ * idempotent: every write keeps its id and expected version, so a write that already reached storage is
+ * recognised by the id stored with the row, and one whose home was changed by someone else since loses
+ * the compare-and-set (and is logged) instead of overwriting that change.
+ * While the journal is not empty, new writes are appended behind it so they never overtake older ones.
+ */
+public class WriteJournal {
+    private static final int RECORD_MAGIC = 0x45484a32; // "EHJ2"
+    // Records of older versions carried the write time where the write id is now
+    private static final int LEGACY_RECORD_MAGIC = 0x45484a52; // "EHJR"
+    // magic, payload length, crc
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 4;
+    private static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+
+    private final Plugin plugin;
+    private final Path path;
+    private final Function<List<HomeWrite>, CompletableFuture<Void>> writer;
+    private final BooleanSupplier available;
+    private final int maxBatchSize;
+
+    // Journaled writes per player, coalesced like the write-behind queue - guarded by "this"
+    private final Map<UUID, Map<String, HomeWrite>> pending = new LinkedHashMap<>();
+    private int pendingCount;
+    private FileChannel channel;
+
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private final AtomicLong journaled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong failedReplays = new AtomicLong();
+
+    public WriteJournal(Plugin plugin, File file, Function<List<HomeWrite>, CompletableFuture<Void>> writer,
+            BooleanSupplier available, int maxBatchSize) {
+        this.plugin = plugin;
+        this.path = file.toPath();
+        this.writer = writer;
+        this.available = available;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Open the journal and load writes left over from a previous run (blocking)
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(path.getParent());
+        if (Files.exists(path)) {
+            read();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        if (pendingCount > 0) {
+            plugin.getLogger().warning(pendingCount + " home writes from a storage outage are journaled and will be replayed");
+        }
+    }
+
+    private void read() throws IOException {
+        byte[] data = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt(start + 4);
+            int magic = buffer.getInt(start);
+            if ((magic != RECORD_MAGIC && magic != LEGACY_RECORD_MAGIC) || length < 0 || length > MAX_PAYLOAD_SIZE
+                    || buffer.remaining() < RECORD_HEADER_SIZE + length
+                    || buffer.getInt(start + 8) != checksum(data, start + RECORD_HEADER_SIZE, length)) {
+                // A crash can leave a torn record at the end - everything before it was synced
+                plugin.getLogger().warning("Ignoring " + buffer.remaining() + " damaged bytes at the end of the write journal");
+                break;
+            }
+
+            add(decode(data, start + RECORD_HEADER_SIZE, length, magic == LEGACY_RECORD_MAGIC));
+            buffer.position(start + RECORD_HEADER_SIZE + length);
+        }
+    }
+
+    /**
+     * Append writes and force them to disk before returning (blocking)
+     */
+    public void append(List<HomeWrite> writes) throws IOException {
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96 * writes.size());
+        for (HomeWrite write : writes) {
+            bytes.write(encode(write));
+        }
+
+        synchronized (this) {
+            if (channel == null) {
+                throw new IOException("Write journal is closed");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+
+            for (HomeWrite write : writes) {
+                add(write);
+            }
+        }
+        journaled.addAndGet(writes.size());
+    }
+
+    /**
+     * Keep the newest write per home - it inherits the expected version of the write it replaces
+     */
+    private void add(HomeWrite write) {
+        Map<String, HomeWrite> playerWrites = pending.computeIfAbsent(write.getPlayerId(), id -> new LinkedHashMap<>());
+        HomeWrite replaced = playerWrites.get(write.getHomeName());
+        if (replaced == null) {
+            playerWrites.put(write.getHomeName(), write);
+            pendingCount++;
+        } else {
+            playerWrites.put(write.getHomeName(), write.replacing(replaced));
+        }
+    }
+
+    /**
+     * Check if writes are waiting to be replayed
+     */
+    public synchronized boolean isEmpty() {
+        return pendingCount == 0;
+    }
+
+    /**
+     * Apply journaled writes on top of loaded homes
+     */
+    public synchronized Map<String, Home> overlay(UUID playerId, Map<String, Home> loaded) {
+        Map<String, HomeWrite> writes = pending.get(playerId);
+        if (writes == null) {
+            return loaded;
+        }
+
+        Map<String, Home> homes = new LinkedHashMap<>(loaded);
+        for (HomeWrite write : writes.values()) {
+            if (write.isDelete()) {
+                homes.remove(write.getHomeName());
+            } else {
+                homes.put(write.getHomeName(), write.getHome());
+            }
+        }
+        return homes;
+    }
+
+    /**
+     * Replay journaled writes in batches if storage is available (blocking - call off the main thread)
+     * Stops at the first failed batch; replayed writes are dropped from the journal file
+     */
+    public void replay() {
+        if (isEmpty() || !available.getAsBoolean() || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<HomeWrite> writes;
+            synchronized (this) {
+                writes = new ArrayList<>(pendingCount);
+                for (Map<String, HomeWrite> playerWrites : pending.values()) {
+                    writes.addAll(playerWrites.values());
+                }
+            }
+
+            int done = 0;
+            for (int from = 0; from < writes.size(); from += maxBatchSize) {
+                List<HomeWrite> batch = writes.subList(from, Math.min(writes.size(), from + maxBatchSize));
+                try {
+                    writer.apply(batch).join();
+                } catch (Exception e) {
+                    failedReplays.incrementAndGet();
+                    plugin.getLogger().log(Level.WARNING, "Failed to replay journaled home writes, will retry", e);
+                    break;
+                }
+                remove(batch);
+                done += batch.size();
+            }
+
+            if (done > 0) {
+                replayed.addAndGet(done);
+                compact();
+                plugin.getLogger().info("Replayed " + done + " journaled home writes");
+            }
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    /**
+     * Drop replayed writes unless a newer write for the same home arrived meanwhile
+     */
+    private synchronized void remove(List<HomeWrite> batch) {
+        for (HomeWrite write : batch) {
+            Map<String, HomeWrite> playerWrites = pending.get(write.getPlayerId());
+            if (playerWrites != null && playerWrites.remove(write.getHomeName(), write)) {
+                pendingCount--;
+                if (playerWrites.isEmpty()) {
+                    pending.remove(write.getPlayerId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrite the journal file with the writes still pending (atomic replace)
+     */
+    private synchronized void compact() {
+        if (channel == null) {
+            return;
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map<String, HomeWrite> playerWrites : pending.values()) {
+                for (HomeWrite write : playerWrites.values()) {
+                    ByteBuffer buffer = ByteBuffer.wrap(encode(write));
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+            }
+            out.force(false);
+
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // The old file still holds every pending write - replaying them again is harmless
+            plugin.getLogger().log(Level.WARNING, "Failed to compact the write journal", e);
+            try {
+                if (!channel.isOpen()) {
+                    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+            } catch (IOException reopen) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to reopen the write journal", reopen);
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Get journal statistics
+     */
+    public String getStats() {
+        int waiting;
+        synchronized (this) {
+            waiting = pendingCount;
+        }
+        return String.format("Journaled: %d, Waiting for replay: %d, Replayed: %d, Failed replays: %d",
+                journaled.get(), waiting, replayed.get(), failedReplays.get());
+    }
+
+    /**
+     * Close the journal file - pending writes stay on disk for the next start
+     */
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close the write journal", e);
+        }
+        channel = null;
+
+        if (pendingCount > 0) {
+            plugin.getLogger().warning(pendingCount + " home writes remain in the journal and will be replayed on next start");
+        }
+    }
+
+    private static byte[] encode(HomeWrite write) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        // Header placeholder - filled in below
+        out.write(new byte[RECORD_HEADER_SIZE]);
+        out.writeLong(write.getPlayerId().getMostSignificantBits());
+        out.writeLong(write.getPlayerId().getLeastSignificantBits());
+        out.writeUTF(write.getHomeName());
+        out.writeLong(write.getExpectedVersion());
+        out.writeLong(write.getId());
+
+        Home home = write.getHome();
+        out.writeBoolean(home != null);
+        if (home != null) {
+            out.writeUTF(home.getName());
+            out.writeUTF(home.getWorldName());
+            out.writeDouble(home.getX());
+            out.writeDouble(home.getY());
+            out.writeDouble(home.getZ());
+            out.writeFloat(home.getYaw());
+            out.writeFloat(home.getPitch());
+            out.writeLong(home.getCreatedAt());
+            out.writeLong(home.getVersion());
+        }
+
+        byte[] record = bytes.toByteArray();
+        int length = record.length - RECORD_HEADER_SIZE;
+        ByteBuffer header = ByteBuffer.wrap(record);
+        header.putInt(0, RECORD_MAGIC);
+        header.putInt(4, length);
+        header.putInt(8, checksum(record, RECORD_HEADER_SIZE, length));
+        return record;
+    }
+
+    private static HomeWrite decode(byte[] data, int offset, int length, boolean legacy) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        UUID playerId = new UUID(in.readLong(), in.readLong());
+        String homeName = in.readUTF();
+        long expectedVersion = in.readLong();
+        long id = in.readLong();
+        if (legacy) {
+            id = 0;
+        }
+
+        Home home = null;
+        if (in.readBoolean()) {
+            home = new Home(in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readFloat(), in.readFloat(), in.readLong(), in.readLong());
+        }
+        return HomeWrite.restore(playerId, homeName, home, expectedVersion, id);
+    }
+
+    private static int checksum(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+}
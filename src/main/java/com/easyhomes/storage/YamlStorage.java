@@ -0,0 +1,162 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import com.easyhomes.util.DebugManager;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+
+/**
+ * YAML implementation of home storage - one file per player in homes/
+ */
+public class YamlStorage implements StorageBackend {
+    private final Plugin plugin;
+    private final File homesFolder;
+    private final Executor executor;
+    private final YamlWriter writer;
+
+    public YamlStorage(Plugin plugin, DebugManager debugManager, Executor executor, long writeDelayMillis) {
+        this.plugin = plugin;
+        this.executor = executor;
+        this.homesFolder = new File(plugin.getDataFolder(), "homes");
+
+        if (!homesFolder.exists()) {
+            homesFolder.mkdirs();
+        }
+
+        this.writer = new YamlWriter(plugin, debugManager, homesFolder, writeDelayMillis);
+    }
+
+    @Override
+    public String getName() {
+        return "YAML";
+    }
+
+    /**
+     * Get player homes file
+     */
+    private File getPlayerFile(UUID playerId) {
+        return new File(homesFolder, playerId.toString() + ".yml");
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Home>> loadHomes(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> load(playerId), executor);
+    }
+
+    /**
+     * Load homes from YAML file (blocking)
+     */
+    private Map<String, Home> load(UUID playerId) {
+        // A save that has not been written yet is newer than the file
+        HomeSnapshot unsaved = writer.getPending(playerId);
+        if (unsaved != null) {
+            return unsaved.asMap();
+        }
+
+        Map<String, Home> homes = new HashMap<>();
+        File file = getPlayerFile(playerId);
+
+        if (!file.exists()) {
+            return homes;
+        }
+
+        YamlConfiguration yamlConfig = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection homesSection = yamlConfig.getConfigurationSection("homes");
+
+        if (homesSection != null) {
+            for (String homeName : homesSection.getKeys(false)) {
+                ConfigurationSection homeSection = homesSection.getConfigurationSection(homeName);
+                if (homeSection != null) {
+                    try {
+                        Home home = Home.load(homeName, homeSection);
+                        homes.put(homeName.toLowerCase(), home);
+                    } catch (Exception e) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to load home '" + homeName + "' for player " + playerId, e);
+                    }
+                }
+            }
+        }
+
+        return homes;
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> listPlayers() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<UUID> players = new ArrayList<>();
+            String[] files = homesFolder.list((dir, name) -> name.endsWith(".yml"));
+            if (files == null) {
+                return players;
+            }
+
+            for (String name : files) {
+                try {
+                    players.add(UUID.fromString(name.substring(0, name.length() - ".yml".length())));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping unexpected file in homes folder: " + name);
+                }
+            }
+            return players;
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> save(UUID playerId, HomeWrite write, HomeSnapshot snapshot) {
+        // The whole file is rewritten anyway - no need to re-read it
+        return writer.schedule(playerId, snapshot);
+    }
+
+    @Override
+    public CompletableFuture<Void> writeBatch(List<HomeWrite> writes) {
+        return CompletableFuture.supplyAsync(() -> applyBatch(writes), executor).thenCompose(saves -> saves);
+    }
+
+    /**
+     * Rebuild each affected player's file from its current contents plus the changes
+     */
+    private synchronized CompletableFuture<Void> applyBatch(List<HomeWrite> writes) {
+        Map<UUID, List<HomeWrite>> byPlayer = new LinkedHashMap<>();
+        for (HomeWrite write : writes) {
+            byPlayer.computeIfAbsent(write.getPlayerId(), id -> new ArrayList<>()).add(write);
+        }
+
+        List<CompletableFuture<Void>> saves = new ArrayList<>();
+        for (Map.Entry<UUID, List<HomeWrite>> entry : byPlayer.entrySet()) {
+            HomeSnapshot snapshot = HomeSnapshot.of(load(entry.getKey()));
+            for (HomeWrite write : entry.getValue()) {
+                snapshot = write.isDelete() ? snapshot.without(write.getHomeName()) : snapshot.with(write.getHome());
+            }
+            saves.add(writer.schedule(entry.getKey(), snapshot));
+        }
+
+        return CompletableFuture.allOf(saves.toArray(new CompletableFuture[0]));
+    }
+
+    @Override
+    public boolean supportsWriteBehind() {
+        // YamlWriter already coalesces saves per player
+        return false;
+    }
+
+    @Override
+    public String getStats() {
+        return writer.getStats();
+    }
+
+    @Override
+    public void shutdown() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,238 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import com.easyhomes.util.DebugManager;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Dedicated writer thread for per-player YAML files
+ * Pending saves for the same player are coalesced into one write,
+ * and files are replaced atomically (temp file + rename)
+ */
+public class YamlWriter {
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    // Failed attempts before the caller is told the save failed - retries go on in the background
+    private static final int MAX_REPORTED_ATTEMPTS = 5;
+
+    private final Plugin plugin;
+    private final DebugManager debugManager;
+    private final File homesFolder;
+    private final long writeDelayMillis;
+    private final ScheduledExecutorService executor;
+    private final Map<UUID, PendingSave> pending = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalWriteNanos = new AtomicLong();
+    private final AtomicLong maxWriteNanos = new AtomicLong();
+
+    public YamlWriter(Plugin plugin, DebugManager debugManager, File homesFolder, long writeDelayMillis) {
+        this.plugin = plugin;
+        this.debugManager = debugManager;
+        this.homesFolder = homesFolder;
+        this.writeDelayMillis = Math.max(0, writeDelayMillis);
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "EasyHomes-YAML-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedule a save of the player's homes - replaces a save that has not been written yet
+     * The returned future completes once the file is on disk, or fails after repeated failed attempts
+     */
+    public CompletableFuture<Void> schedule(UUID playerId, HomeSnapshot snapshot) {
+        PendingSave created = new PendingSave(snapshot);
+        PendingSave existing = pending.merge(playerId, created, (current, ignored) -> {
+            current.snapshot = snapshot;
+            return current;
+        });
+
+        if (existing == created) {
+            executor.schedule(() -> write(playerId), writeDelayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            coalesced.incrementAndGet();
+        }
+        return existing.future;
+    }
+
+    /**
+     * Snapshot that is waiting to be written, or null
+     */
+    public HomeSnapshot getPending(UUID playerId) {
+        PendingSave save = pending.get(playerId);
+        return save != null ? save.snapshot : null;
+    }
+
+    private void write(UUID playerId) {
+        PendingSave save = pending.remove(playerId);
+        if (save == null) {
+            return;
+        }
+
+        HomeSnapshot snapshot = save.snapshot;
+        long start = System.nanoTime();
+        try {
+            writeFile(playerId, snapshot);
+
+            long elapsed = System.nanoTime() - start;
+            writes.incrementAndGet();
+            totalWriteNanos.addAndGet(elapsed);
+            maxWriteNanos.accumulateAndGet(elapsed, Math::max);
+            debugManager.log("[YAML] Saved " + playerId + " (" + snapshot.size() + " homes) in "
+                    + String.format("%.2f", elapsed / 1_000_000.0) + "ms");
+            save.future.complete(null);
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            retry(playerId, save, e);
+        }
+    }
+
+    /**
+     * Queue a failed save again with exponential backoff; its future stays pending and completes with the
+     * outcome of a later attempt. After MAX_REPORTED_ATTEMPTS the future fails, but the snapshot keeps being
+     * retried. A newer save that is already pending holds all of the player's homes and replaces it.
+     */
+    private void retry(UUID playerId, PendingSave failed, Exception error) {
+        int attempts = failed.attempts + 1;
+        boolean reported = attempts >= MAX_REPORTED_ATTEMPTS;
+        if (reported) {
+            failed.future.completeExceptionally(error);
+        }
+
+        PendingSave retry = reported ? new PendingSave(failed.snapshot) : new PendingSave(failed.snapshot, failed.future);
+        retry.attempts = attempts;
+        PendingSave newer = pending.putIfAbsent(playerId, retry);
+        if (newer != null) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save homes for player " + playerId + " - a newer save is pending", error);
+            if (!reported) {
+                newer.future.whenComplete((ignored, newerError) -> {
+                    if (newerError != null) {
+                        failed.future.completeExceptionally(newerError);
+                    } else {
+                        failed.future.complete(null);
+                    }
+                });
+            }
+            return;
+        }
+
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_DELAY_MILLIS << Math.min(attempts - 1, 6));
+        try {
+            executor.schedule(() -> write(playerId), delay, TimeUnit.MILLISECONDS);
+            plugin.getLogger().log(Level.WARNING, "Failed to save homes for player " + playerId
+                    + " (attempt " + attempts + "), retrying in " + delay / 1000 + "s", error);
+        } catch (RejectedExecutionException e) {
+            // Shutting down - nothing will run it any more
+            pending.remove(playerId, retry);
+            retry.future.completeExceptionally(error);
+            plugin.getLogger().log(Level.SEVERE, "Failed to save homes for player " + playerId
+                    + " - " + failed.snapshot.size() + " homes were not written", error);
+        }
+    }
+
+    /**
+     * Serialize and atomically replace the player's file
+     */
+    private void writeFile(UUID playerId, HomeSnapshot snapshot) throws IOException {
+        Path target = new File(homesFolder, playerId.toString() + ".yml").toPath();
+
+        if (snapshot.isEmpty()) {
+            Files.deleteIfExists(target);
+            return;
+        }
+
+        YamlConfiguration yamlConfig = new YamlConfiguration();
+        ConfigurationSection homesSection = yamlConfig.createSection("homes");
+        for (Map.Entry<String, Home> entry : snapshot.asMap().entrySet()) {
+            ConfigurationSection homeSection = homesSection.createSection(entry.getKey());
+            entry.getValue().save(homeSection);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        byte[] data = yamlConfig.saveToString().getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Get writer statistics
+     */
+    public String getStats() {
+        long count = writes.get();
+        double avgMillis = count > 0 ? totalWriteNanos.get() / (double) count / 1_000_000.0 : 0;
+        return String.format("Pending: %d, Writes: %d, Coalesced: %d, Failed: %d, Avg: %.2fms, Max: %.2fms",
+                pending.size(), count, coalesced.get(), failures.get(), avgMillis, maxWriteNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Write everything that is still pending and stop the writer thread (blocking)
+     */
+    public void shutdown() {
+        // Delayed saves still run after shutdown() - wait for them
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("YAML writer did not finish in time, " + pending.size() + " saves pending");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class PendingSave {
+        final CompletableFuture<Void> future;
+        volatile HomeSnapshot snapshot;
+        // Failed writes of this save so far
+        int attempts;
+
+        PendingSave(HomeSnapshot snapshot) {
+            this(snapshot, new CompletableFuture<>());
+        }
+
+        PendingSave(HomeSnapshot snapshot, CompletableFuture<Void> future) {
+            this.snapshot = snapshot;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.easyhomes.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in microseconds
+ * Exact below 16us, then four buckets per power of two (at most 25% error), up to ~35 minutes (2^31us) -
+ * slower samples share the last bucket
+ */
+public class LatencyHistogram {
+    private static final int LINEAR = 16;
+    private static final int SUB_BUCKETS = 4;
+    private static final int MAX_OCTAVE = 31;
+    private static final int BUCKETS = LINEAR + (MAX_OCTAVE - 4 + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record one sample
+     */
+    public void record(long micros) {
+        micros = Math.max(0, micros);
+        buckets.incrementAndGet(bucketOf(micros));
+        count.increment();
+        max.accumulate(micros);
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int octave = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_OCTAVE);
+        int sub = octave == MAX_OCTAVE ? SUB_BUCKETS - 1 : (int) (micros >> (octave - 2)) & (SUB_BUCKETS - 1);
+        return LINEAR + (octave - 4) * SUB_BUCKETS + sub;
+    }
+
+    // Largest value that falls into the bucket
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        if (bucket == BUCKETS - 1) {
+            // Open-ended - the max is the only bound
+            return Long.MAX_VALUE;
+        }
+        int octave = (bucket - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (octave - 2)) - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Value at the given percentile (0-100), reported as the upper bound of its bucket
+     */
+    public long getPercentile(double percentile) {
+        long samples = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            samples += snapshot[i];
+        }
+        if (samples == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(samples * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,27 @@
+package com.easyhomes.util;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor that runs tasks on the Bukkit main thread
+ * Runs inline when already on the main thread (or when the plugin is disabled)
+ */
+public class MainThreadExecutor implements Executor {
+    private final Plugin plugin;
+
+    public MainThreadExecutor(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (plugin.getServer().isPrimaryThread() || !plugin.isEnabled()) {
+            command.run();
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTask(plugin, command);
+    }
+}
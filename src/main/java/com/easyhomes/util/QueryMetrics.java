@@ -0,0 +1,155 @@
+package com.easyhomes.util;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-operation latency histograms and slow-query log for storage backends
+ * Times are measured on the storage thread, so they exclude main-thread lag; time spent waiting for a
+ * storage thread is recorded separately as {@link #QUEUE_WAIT}
+ */
+public class QueryMetrics {
+    /**
+     * Pseudo operation for the time between submitting a task and a storage thread picking it up
+     */
+    public static final String QUEUE_WAIT = "queue-wait";
+
+    // At most one slow-query warning per interval, the rest are counted
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Plugin plugin;
+    private final DebugManager debugManager;
+    private final long slowQueryMicros;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final AtomicLong lastWarning = new AtomicLong(System.nanoTime() - WARN_INTERVAL_NANOS);
+    private final LongAdder suppressedWarnings = new LongAdder();
+    private volatile long since = System.currentTimeMillis();
+
+    public QueryMetrics(Plugin plugin, DebugManager debugManager, long slowQueryMillis) {
+        this.plugin = plugin;
+        this.debugManager = debugManager;
+        this.slowQueryMicros = slowQueryMillis > 0 ? TimeUnit.MILLISECONDS.toMicros(slowQueryMillis) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Run a task and record its latency; exceptions are counted as errors and rethrown
+     */
+    public <T> T time(String operation, Object detail, Supplier<T> task) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = task.get();
+            success = true;
+            return result;
+        } finally {
+            record(operation, detail, System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * Record how long a task waited for a storage thread
+     */
+    public void recordQueueWait(long nanos) {
+        operation(QUEUE_WAIT).histogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private void record(String name, Object detail, long nanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        Operation operation = operation(name);
+        operation.histogram.record(micros);
+        if (!success) {
+            operation.errors.increment();
+        }
+
+        boolean slow = micros >= slowQueryMicros;
+        if (slow) {
+            operation.slow.increment();
+        }
+        // Only build the message when it is logged - this runs for every query
+        if (!slow && !debugManager.isEnabled()) {
+            return;
+        }
+
+        String details = detail + " (" + formatMillis(micros) + "ms" + (success ? "" : ", failed") + ")";
+        debugManager.logDatabase(name, details);
+        if (slow) {
+            logSlowQuery(name, details);
+        }
+    }
+
+    private void logSlowQuery(String operation, String details) {
+        long now = System.nanoTime();
+        long last = lastWarning.get();
+        if (now - last < WARN_INTERVAL_NANOS || !lastWarning.compareAndSet(last, now)) {
+            suppressedWarnings.increment();
+            return;
+        }
+
+        long suppressed = suppressedWarnings.sumThenReset();
+        plugin.getLogger().warning("Slow database query: " + operation + " " + details
+                + (suppressed > 0 ? " - " + suppressed + " more slow queries not logged" : ""));
+    }
+
+    private Operation operation(String name) {
+        return operations.computeIfAbsent(name, key -> new Operation());
+    }
+
+    /**
+     * Statistics of every recorded operation, sorted by name
+     */
+    public Map<String, String> getStats() {
+        Map<String, String> stats = new TreeMap<>();
+        operations.forEach((name, operation) -> stats.put(name, operation.getStats()));
+        return stats;
+    }
+
+    /**
+     * Slow-query threshold in milliseconds (0 = disabled)
+     */
+    public long getSlowQueryMillis() {
+        return slowQueryMicros == Long.MAX_VALUE ? 0 : TimeUnit.MICROSECONDS.toMillis(slowQueryMicros);
+    }
+
+    /**
+     * Time recording started or was last reset
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * Drop all recorded samples
+     */
+    public void reset() {
+        operations.clear();
+        since = System.currentTimeMillis();
+    }
+
+    private static String formatMillis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+
+    private static class Operation {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+
+        private String getStats() {
+            return String.format("%d calls, %d errors, %d slow | p50 %sms, p95 %sms, p99 %sms, max %sms",
+                    histogram.getCount(),
+                    errors.sum(),
+                    slow.sum(),
+                    formatMillis(histogram.getPercentile(50)),
+                    formatMillis(histogram.getPercentile(95)),
+                    formatMillis(histogram.getPercentile(99)),
+                    formatMillis(histogram.getMax()));
+        }
+    }
+}
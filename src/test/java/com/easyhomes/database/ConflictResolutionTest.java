@@ -0,0 +1,112 @@
+package com.easyhomes.database;
+
+import com.easyhomes.database.MySQLStorage.Resolution;
+import com.easyhomes.model.Home;
+import com.easyhomes.storage.HomeWrite;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * How a compare-and-set write that matched no row is settled
+ */
+class ConflictResolutionTest {
+    private final UUID playerId = UUID.randomUUID();
+
+    private Home home(long version) {
+        return new Home("Base", "world", 1, 64, 2, 0, 0, 1000L, version);
+    }
+
+    @Test
+    void writeWhoseIdIsStoredWasAlreadyApplied() {
+        HomeWrite write = HomeWrite.save(playerId, home(2), 1);
+
+        assertEquals(Resolution.APPLIED, MySQLStorage.resolve(write, true, 2, write.getId()));
+    }
+
+    @Test
+    void otherWriterOnTheSameVersionSupersedes() {
+        // Both writers started from version 1 and stored version 2 - only the write id tells them apart
+        HomeWrite ours = HomeWrite.save(playerId, home(2), 1);
+        HomeWrite theirs = HomeWrite.save(playerId, home(2), 1);
+        assertNotEquals(ours.getId(), theirs.getId());
+
+        assertEquals(Resolution.SUPERSEDED, MySQLStorage.resolve(ours, true, 2, theirs.getId()));
+    }
+
+    @Test
+    void unchangedVersionIsRetried() {
+        HomeWrite write = HomeWrite.save(playerId, home(4), 3);
+
+        assertEquals(Resolution.RETRY, MySQLStorage.resolve(write, true, 3, 0));
+    }
+
+    @Test
+    void newerVersionSupersedes() {
+        HomeWrite write = HomeWrite.save(playerId, home(4), 3);
+
+        assertEquals(Resolution.SUPERSEDED, MySQLStorage.resolve(write, true, 5, 0));
+    }
+
+    @Test
+    void createLosesToExistingRow() {
+        HomeWrite write = HomeWrite.save(playerId, home(1), HomeWrite.NO_VERSION);
+
+        assertEquals(Resolution.SUPERSEDED, MySQLStorage.resolve(write, true, 1, 0));
+    }
+
+    @Test
+    void createWithoutRowIsRetried() {
+        HomeWrite write = HomeWrite.save(playerId, home(1), HomeWrite.NO_VERSION);
+
+        assertEquals(Resolution.RETRY, MySQLStorage.resolve(write, false, 0, 0));
+    }
+
+    @Test
+    void updateOfDeletedRowSupersedes() {
+        HomeWrite write = HomeWrite.save(playerId, home(3), 2);
+
+        assertEquals(Resolution.SUPERSEDED, MySQLStorage.resolve(write, false, 0, 0));
+    }
+
+    @Test
+    void deleteOfMissingRowIsApplied() {
+        HomeWrite write = HomeWrite.delete(playerId, "Base", 2);
+
+        assertEquals(Resolution.APPLIED, MySQLStorage.resolve(write, false, 0, 0));
+    }
+
+    @Test
+    void deleteIgnoresMatchingWriteId() {
+        // A delete leaves no row behind, so a stored id can never be its own
+        HomeWrite write = HomeWrite.delete(playerId, "Base", 2);
+
+        assertEquals(Resolution.SUPERSEDED, MySQLStorage.resolve(write, true, 3, write.getId()));
+        assertEquals(Resolution.RETRY, MySQLStorage.resolve(write, true, 2, write.getId()));
+    }
+
+    @Test
+    void replacementKeepsOlderExpectedVersion() {
+        HomeWrite older = HomeWrite.save(playerId, home(2), 1);
+        HomeWrite newer = HomeWrite.save(playerId, home(3), 2);
+
+        HomeWrite merged = newer.replacing(older);
+        assertEquals(1, merged.getExpectedVersion());
+        assertEquals(newer.getId(), merged.getId());
+        assertEquals(newer.getHome(), merged.getHome());
+    }
+
+    @Test
+    void unconditionalReplacementStaysUnconditional() {
+        HomeWrite older = HomeWrite.save(playerId, home(2), 1);
+        HomeWrite newer = HomeWrite.save(playerId, home(3));
+
+        HomeWrite merged = newer.replacing(older);
+        assertFalse(merged.isConditional());
+        assertEquals(HomeWrite.ANY_VERSION, merged.getExpectedVersion());
+    }
+}
@@ -0,0 +1,115 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import com.easyhomes.util.DebugManager;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryLogStorageTest {
+    private static final long SEGMENT_SIZE = 1024 * 1024;
+    // Keeps a filler record around 2 KB, so a segment fills up quickly
+    private static final String LONG_WORLD = String.join("", Collections.nCopies(2000, "w"));
+
+    @TempDir
+    File dataFolder;
+
+    private BinaryLogStorage storage;
+
+    @AfterEach
+    void close() {
+        if (storage != null) {
+            storage.shutdown();
+        }
+    }
+
+    private BinaryLogStorage open() {
+        Plugin plugin = TestPlugins.create(dataFolder);
+        storage = new BinaryLogStorage(plugin, new DebugManager(plugin), Runnable::run, SEGMENT_SIZE, 0.5, false);
+        assertTrue(storage.initialize(60));
+        return storage;
+    }
+
+    private void reopenWithoutIndex() {
+        storage.shutdown();
+        storage = null;
+        assertTrue(new File(new File(dataFolder, "homes-log"), "index.dat").delete());
+        open();
+    }
+
+    private File segmentFile(int id) {
+        return new File(new File(dataFolder, "homes-log"), String.format("segment-%08d.log", id));
+    }
+
+    private void save(UUID playerId, String name, String world) {
+        Home home = new Home(name, world, 1, 64, 2, 0, 0, 1000L);
+        storage.writeBatch(List.of(HomeWrite.save(playerId, home))).join();
+    }
+
+    /**
+     * Write players with large homes until the log rolls over to the given segment
+     */
+    private UUID fillUntil(int segmentId) {
+        UUID playerId;
+        do {
+            playerId = UUID.randomUUID();
+            save(playerId, "Filler", LONG_WORLD);
+        } while (!segmentFile(segmentId).exists());
+        return playerId;
+    }
+
+    private Map<String, Home> load(UUID playerId) {
+        return storage.loadHomes(playerId).join();
+    }
+
+    @Test
+    void rebuildReadsLatestRecords() {
+        open();
+        UUID playerId = UUID.randomUUID();
+        save(playerId, "Base", "world");
+        save(playerId, "Farm", "world");
+
+        reopenWithoutIndex();
+
+        assertEquals(2, load(playerId).size());
+    }
+
+    @Test
+    void deletedHomesStayDeletedAfterCompactionAndRebuild() {
+        open();
+        UUID deletedPlayer = UUID.randomUUID();
+        save(deletedPlayer, "Base", "world");
+        // Segment 1 stays mostly live and survives compaction
+        UUID filler = fillUntil(2);
+
+        // Segment 2 holds the tombstone, then turns to garbage
+        storage.writeBatch(List.of(HomeWrite.delete(deletedPlayer, "base"))).join();
+        UUID busyPlayer = UUID.randomUUID();
+        do {
+            save(busyPlayer, "Base", LONG_WORLD);
+        } while (!segmentFile(3).exists());
+
+        storage.compactNow().join();
+        assertTrue(segmentFile(1).exists());
+        assertFalse(segmentFile(2).exists());
+        assertTrue(load(deletedPlayer).isEmpty());
+
+        reopenWithoutIndex();
+
+        // The home in segment 1 is older than the tombstone carried over from segment 2
+        assertTrue(load(deletedPlayer).isEmpty());
+        assertEquals(1, load(filler).size());
+        assertEquals(1, load(busyPlayer).size());
+    }
+}
@@ -0,0 +1,56 @@
+package com.easyhomes.storage;
+
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Minimal plugin stand-in: a data folder and a logger, a scheduler that never runs anything
+ */
+final class TestPlugins {
+    private TestPlugins() {
+    }
+
+    static Plugin create(File dataFolder) {
+        Logger logger = Logger.getLogger("EasyHomesTest");
+        BukkitScheduler scheduler = stub(BukkitScheduler.class, null);
+        Server server = stub(Server.class, scheduler);
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getDataFolder" -> dataFolder;
+                    case "getLogger" -> logger;
+                    case "getServer" -> server;
+                    case "getName" -> "EasyHomes";
+                    case "isEnabled" -> false;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Proxy that returns the given scheduler where one is asked for and nothing otherwise
+     */
+    private static <T> T stub(Class<T> type, BukkitScheduler scheduler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> method.getName().equals("getScheduler") ? scheduler
+                        : defaultValue(method.getReturnType())));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,146 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.model.Home;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private final UUID playerId = UUID.randomUUID();
+    private final List<List<HomeWrite>> batches = new ArrayList<>();
+
+    private WriteBehindQueue queue(Function<List<HomeWrite>, CompletableFuture<Void>> writer) {
+        return new WriteBehindQueue(TestPlugins.create(null), writer, 20, 100);
+    }
+
+    private CompletableFuture<Void> record(List<HomeWrite> batch) {
+        batches.add(new ArrayList<>(batch));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private Home home(String name, double x, long version) {
+        return new Home(name, "world", x, 64, 0, 0, 0, 1000L, version);
+    }
+
+    @Test
+    void repeatedWritesToOneHomeAreCoalesced() {
+        WriteBehindQueue queue = queue(this::record);
+        HomeWrite first = HomeWrite.save(playerId, home("Base", 1, 2), 1);
+        HomeWrite second = HomeWrite.save(playerId, home("Base", 2, 3), 2);
+        queue.enqueue(first);
+        queue.enqueue(second);
+        assertEquals(1, queue.getPendingCount());
+
+        queue.flush();
+
+        assertEquals(1, batches.size());
+        HomeWrite written = batches.get(0).get(0);
+        assertEquals(1, batches.get(0).size());
+        assertSame(second.getHome(), written.getHome());
+        // The first write never reached storage - the row still holds what it expected
+        assertEquals(first.getExpectedVersion(), written.getExpectedVersion());
+        assertEquals(second.getId(), written.getId());
+    }
+
+    @Test
+    void deleteReplacesPendingSave() {
+        WriteBehindQueue queue = queue(this::record);
+        queue.enqueue(HomeWrite.save(playerId, home("Base", 1, 1), HomeWrite.NO_VERSION));
+        queue.enqueue(HomeWrite.delete(playerId, "base", 1));
+
+        queue.flush();
+
+        HomeWrite written = batches.get(0).get(0);
+        assertTrue(written.isDelete());
+        assertEquals(HomeWrite.NO_VERSION, written.getExpectedVersion());
+    }
+
+    @Test
+    void writesToDifferentHomesAreKept() {
+        WriteBehindQueue queue = queue(this::record);
+        queue.enqueue(HomeWrite.save(playerId, home("Base", 1, 1), HomeWrite.NO_VERSION));
+        queue.enqueue(HomeWrite.save(playerId, home("Farm", 2, 1), HomeWrite.NO_VERSION));
+        assertEquals(2, queue.getPendingCount());
+
+        queue.flush();
+
+        assertEquals(2, batches.get(0).size());
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void overlayShowsPendingWrites() {
+        WriteBehindQueue queue = queue(this::record);
+        Home stored = home("Base", 1, 1);
+        Home pending = home("Base", 5, 2);
+        queue.enqueue(HomeWrite.save(playerId, pending, 1));
+        queue.enqueue(HomeWrite.delete(playerId, "farm", 1));
+
+        Map<String, Home> homes = queue.overlay(playerId, Map.of("base", stored, "farm", home("Farm", 2, 1)));
+
+        assertSame(pending, homes.get("base"));
+        assertFalse(homes.containsKey("farm"));
+        assertSame(Collections.emptyMap(), queue.overlay(UUID.randomUUID(), Collections.emptyMap()));
+    }
+
+    @Test
+    void failedBatchIsRequeuedBehindNewerWrite() {
+        List<HomeWrite> failed = new ArrayList<>();
+        HomeWrite first = HomeWrite.save(playerId, home("Base", 1, 2), 1);
+        HomeWrite[] newer = new HomeWrite[1];
+        WriteBehindQueue[] holder = new WriteBehindQueue[1];
+        WriteBehindQueue queue = queue(batch -> {
+            if (failed.isEmpty()) {
+                failed.addAll(batch);
+                // A newer write arrives while the batch is being written
+                newer[0] = HomeWrite.save(playerId, home("Base", 3, 3), 2);
+                holder[0].enqueue(newer[0]);
+                return CompletableFuture.failedFuture(new IllegalStateException("Database down"));
+            }
+            return record(batch);
+        });
+        holder[0] = queue;
+        queue.enqueue(first);
+
+        queue.flush();
+        assertEquals(1, queue.getPendingCount());
+
+        queue.flush();
+        assertEquals(1, batches.size());
+        HomeWrite written = batches.get(0).get(0);
+        assertSame(newer[0].getHome(), written.getHome());
+        // The failed write is not stored, so the newer one must expect what it expected
+        assertEquals(first.getExpectedVersion(), written.getExpectedVersion());
+    }
+
+    @Test
+    void failedBatchIsRetriedWhenNothingNewer() {
+        boolean[] fail = {true};
+        WriteBehindQueue queue = queue(batch -> {
+            if (fail[0]) {
+                fail[0] = false;
+                return CompletableFuture.failedFuture(new IllegalStateException("Database down"));
+            }
+            return record(batch);
+        });
+        HomeWrite write = HomeWrite.save(playerId, home("Base", 1, 1), HomeWrite.NO_VERSION);
+        queue.enqueue(write);
+
+        queue.flush();
+        queue.flush();
+
+        assertSame(write, batches.get(0).get(0));
+        assertEquals(0, queue.getPendingCount());
+    }
+}
@@ -0,0 +1,105 @@
+package com.easyhomes.storage;
+
+import com.easyhomes.util.DebugManager;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class YamlWriterTest {
+    @TempDir
+    File dataFolder;
+
+    private YamlWriter writer;
+
+    @AfterEach
+    void close() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    private YamlWriter open(File homesFolder, long writeDelayMillis) {
+        Plugin plugin = TestPlugins.create(dataFolder);
+        writer = new YamlWriter(plugin, new DebugManager(plugin), homesFolder, writeDelayMillis);
+        return writer;
+    }
+
+    @Test
+    void pendingSavesAreCoalesced() throws Exception {
+        File homesFolder = new File(dataFolder, "homes");
+        assertTrue(homesFolder.mkdirs());
+        YamlWriter writer = open(homesFolder, 200);
+        UUID playerId = UUID.randomUUID();
+        HomeSnapshot latest = HomeSnapshot.empty();
+
+        CompletableFuture<Void> first = writer.schedule(playerId, HomeSnapshot.empty());
+        CompletableFuture<Void> second = writer.schedule(playerId, latest);
+
+        assertSame(first, second);
+        assertSame(latest, writer.getPending(playerId));
+        first.get(5, TimeUnit.SECONDS);
+        assertNull(writer.getPending(playerId));
+    }
+
+    @Test
+    void failedSaveStaysPendingUntilRetrySucceeds() throws Exception {
+        // A plain file where the folder should be - every write fails until it is replaced
+        File homesFolder = new File(dataFolder, "homes");
+        Files.createFile(homesFolder.toPath());
+        YamlWriter writer = open(homesFolder, 0);
+        UUID playerId = UUID.randomUUID();
+
+        CompletableFuture<Void> future = writer.schedule(playerId, HomeSnapshot.empty());
+        waitForRetry(writer, playerId);
+        assertFalse(future.isDone(), "a failed write is retried before the caller hears about it");
+
+        assertTrue(homesFolder.delete());
+        assertTrue(homesFolder.mkdirs());
+        future.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void newSaveJoinsQueuedRetry() throws Exception {
+        File homesFolder = new File(dataFolder, "homes");
+        Files.createFile(homesFolder.toPath());
+        YamlWriter writer = open(homesFolder, 0);
+        UUID playerId = UUID.randomUUID();
+
+        CompletableFuture<Void> failed = writer.schedule(playerId, HomeSnapshot.empty());
+        waitForRetry(writer, playerId);
+        assertTrue(homesFolder.delete());
+        assertTrue(homesFolder.mkdirs());
+
+        // Joins the queued retry - both complete with the same write
+        CompletableFuture<Void> newer = writer.schedule(playerId, HomeSnapshot.empty());
+        assertSame(failed, newer);
+        newer.get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Wait until the first attempt failed and its retry is queued
+     */
+    private static void waitForRetry(YamlWriter writer, UUID playerId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!writer.getStats().contains("Failed: 1")) {
+            assertTrue(System.currentTimeMillis() < deadline, "first write did not fail in time");
+            Thread.sleep(10);
+        }
+        // The retry is re-queued right after the failure is counted
+        while (writer.getPending(playerId) == null) {
+            Thread.sleep(10);
+        }
+    }
+}
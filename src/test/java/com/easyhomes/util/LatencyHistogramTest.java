@@ -0,0 +1,69 @@
+package com.easyhomes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10; micros++) {
+            histogram.record(micros);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(9, histogram.getPercentile(90));
+        assertEquals(10, histogram.getPercentile(100));
+    }
+
+    @Test
+    void largeValuesStayWithinBucketError() {
+        for (long micros : new long[]{17, 1000, 123_456, TimeUnit.MINUTES.toMicros(5), TimeUnit.MINUTES.toMicros(30)}) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(micros);
+            histogram.record(0);
+
+            long reported = histogram.getPercentile(99);
+            assertTrue(reported <= micros, "never above the largest sample");
+            // Reported as the bucket's upper bound, capped at the max - so exact for a single sample
+            assertEquals(micros, reported);
+
+            histogram.record(micros + micros / 10);
+            long p50 = histogram.getPercentile(50);
+            assertTrue(p50 >= micros && p50 <= micros * 5 / 4 + 1, "within 25% of " + micros + ": " + p50);
+        }
+    }
+
+    @Test
+    void samplesBeyondRangeShareLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long hour = TimeUnit.HOURS.toMicros(1);
+        histogram.record(hour);
+        histogram.record(hour * 2);
+
+        assertEquals(hour * 2, histogram.getMax());
+        assertEquals(hour * 2, histogram.getPercentile(50));
+    }
+
+    @Test
+    void negativeSamplesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+}